@@ -33,6 +33,96 @@ module ArJdbc
         log(sql, name) { @connection.execute(sql) }
       end
 
+      # Executes a query yielding results in batches (of `ActiveRecord::Result`)
+      # instead of loading all the rows into memory at once.
+      # @param batch_size number of rows in each yielded result
+      # @param fetch_size number of rows the driver fetches at a time
+      # @return number of rows yielded
+      # @extension not an `ActiveRecord` API
+      def exec_query_each_batch(sql, name = nil, binds = [], batch_size: 1000, fetch_size: batch_size, &block)
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+        options = { :batch_size => batch_size, :fetch_size => fetch_size }
+        log(sql, name, binds) do
+          @connection.execute_query_each_batch(sql, binds, options, &block)
+        end
+      end
+
+      # Executes a query in the background (using a dedicated connection,
+      # configured with the session SQL executed on this connection).
+      # @return a future-like object, calling `value` on it returns the result
+      # (`ActiveRecord::Result`) blocking until the query completes
+      # @note the query gets logged once its result is retrieved (using `value`)
+      # @extension not an `ActiveRecord` API
+      def exec_query_async(sql, name = nil, binds = [])
+        binds = convert_legacy_binds_to_attributes(binds) if binds.first.is_a?(Array)
+        result = if without_prepared_statement?(binds)
+          @connection.execute_query_async(sql)
+        else
+          @connection.execute_prepared_async(sql, binds)
+        end
+        AsyncQueryResult.new(self, result, sql, name, binds)
+      end
+
+      # @private logs an async query (while waiting for its result)
+      class AsyncQueryResult
+
+        def initialize(adapter, result, sql, name, binds)
+          @adapter, @result = adapter, result
+          @sql, @name, @binds = sql, name, binds
+        end
+
+        def value
+          return @value if defined?(@value)
+          @value = @adapter.send(:log, @sql, @name, @binds) { @result.value }
+        end
+
+        def complete?; @result.complete? end
+
+        def cancel; @result.cancel end
+
+      end
+
+      # Routes (read-only) queries executed within the block to a replica
+      # (when `replicas:` are configured), outside of transactions.
+      # Without `replica_routing: auto` this is the only way reads get routed.
+      # @note make sure the block only performs side-effect free queries
+      # @extension not an `ActiveRecord` API
+      def with_replica(&block)
+        @connection.with_replica(&block)
+      end
+
+      # Queries executed within the block go to the primary connection, even
+      # with `replica_routing: auto` (e.g. reads that need to see own writes).
+      # @extension not an `ActiveRecord` API
+      def with_primary(&block)
+        @connection.with_primary(&block)
+      end
+
+      # Executes a statement for each of the given binds using JDBC batching.
+      # @param binds_list an array of binds (one per statement execution)
+      # @param batch_size number of statements sent to the database at once
+      # @param generated_keys whether to return generated keys (instead of counts)
+      # @return update counts (or generated keys) for all executed statements
+      # @extension not an `ActiveRecord` API
+      def exec_batch(sql, name = nil, binds_list = [], batch_size: 1000, generated_keys: false)
+        binds_list = binds_list.map do |binds|
+          binds.first.is_a?(Array) ? convert_legacy_binds_to_attributes(binds) : binds
+        end
+        options = { :batch_size => batch_size, :generated_keys => generated_keys }
+        log(sql, name) do
+          @connection.execute_batch(sql, binds_list, options)
+        end
+      end
+
+      # Executes multiple (non-query) SQL statements in a single round-trip
+      # (JDBC batch) if the driver supports it, otherwise one by one.
+      # @param sqls an array of SQL (DDL/DML) strings
+      # @return update counts for all executed statements
+      # @extension not an `ActiveRecord` API
+      def execute_many(sqls, name = nil)
+        log(sqls.join(";\n"), name) { @connection.execute_many(sqls) }
+      end
+
       private
 
       def convert_legacy_binds_to_attributes(binds)
@@ -262,9 +262,62 @@ module ActiveRecord
       end
 
       def columns(table_name, name = nil)
+        if @schema_snapshot && ( entry = @schema_snapshot[table_name.to_s] )
+          return entry[:columns] # while loading the schema cache
+        end
         @connection.columns(table_name.to_s)
       end
 
+      # Introspects all tables of a schema at once (using bulk meta-data calls).
+      # @param schema [String] defaults to the connection's (default) schema
+      # @param options [Hash] `indexes: true`, `foreign_keys: true` to include
+      # those, note that (unless the adapter fetches them in bulk e.g. PostgreSQL)
+      # these cost a meta-data call per table each
+      # @return [Hash] table name => `{ columns: [], primary_keys: [], indexes: [], foreign_keys: [] }`
+      def schema_snapshot(schema = nil, options = {})
+        @connection.schema_snapshot(schema, options)
+      end
+
+      # Persists a {#schema_snapshot} (columns and primary keys) into a binary
+      # file, stamped with the fingerprint from the `schema_fingerprint_sql`
+      # configured query (required, raises if not configured).
+      # @return [String] the schema fingerprint
+      def dump_schema_snapshot(path, schema = nil)
+        @connection.dump_schema_snapshot(path.to_s, schema)
+      end
+
+      # Loads a snapshot persisted with {#dump_schema_snapshot}.
+      # @return [Hash, nil] nil if missing, invalid, stale, of another schema
+      # or no `schema_fingerprint_sql` is configured
+      def load_schema_snapshot(path, schema = nil)
+        @connection.load_schema_snapshot(path.to_s, schema)
+      end
+
+      # Fills the schema cache (columns and primary keys) from a single
+      # {#schema_snapshot} instead of introspecting table by table.
+      #
+      # When a (snapshot) file path is given, the snapshot is loaded from the
+      # file unless it's stale, otherwise the file gets (re-)written, thus
+      # (forked) processes booting after the first one do not need to go
+      # through database meta-data introspection. The file is only used with
+      # a `schema_fingerprint_sql` configured.
+      # @note adapters with their own `columns` (or `primary_keys`) keep using
+      # those, the snapshot is only used where the JDBC meta-data would be
+      # @return [Integer] number of tables loaded
+      def load_schema_cache!(schema = nil, path = nil)
+        snapshot = if path
+          @connection.load_or_dump_schema_snapshot(path.to_s, schema)
+        else
+          schema_snapshot(schema)
+        end
+        @schema_snapshot = snapshot
+        cache = schema_cache
+        snapshot.each_key { |table| cache.add(table) }
+        snapshot.size
+      ensure
+        @schema_snapshot = nil
+      end
+
       # @override
       def supports_views?
         @connection.supports_views?
@@ -373,6 +426,9 @@ module ActiveRecord
 
       # @override
       def primary_keys(table)
+        if @schema_snapshot && ( entry = @schema_snapshot[table.to_s] )
+          return entry[:primary_keys] # while loading the schema cache
+        end
         @connection.primary_keys(table)
       end
 
@@ -64,6 +64,7 @@ module ActiveRecord
         else
           setup_jdbc_factory
         end
+        setup_replica_router if config[:replicas]
       end
 
       protected
@@ -102,7 +103,52 @@ module ActiveRecord
             JdbcDriver.new(config[:driver].to_s, config[:properties]) )
 
         @jndi = false
-        self.connection_factory = JdbcConnectionFactoryImpl.new(url, username, password, driver)
+        factory = JdbcConnectionFactoryImpl.new(url, username, password, driver)
+        factory = pooled_connection_factory(factory) if config[:pool_impl].to_s == 'arjdbc'
+        self.connection_factory = factory
+      end
+
+      # Pooling factories are shared (per runtime) between connections with
+      # the same URL, credentials and session settings, regardless of the AR
+      # pool they are in.
+      # @private
+      @@pooled_factories = {}
+      # Configuration keys that end up as (session) state on the connection.
+      # @private
+      POOL_SESSION_KEYS = [ :schema_search_path, :schema_order, :min_messages,
+        :variables, :encoding ]
+      # @private
+      @@pooled_factories_lock = Mutex.new
+
+      # Wraps the given factory with a (shared) pooling factory.
+      # @see Java::ArjdbcJdbc::PooledConnectionFactory
+      def pooled_connection_factory(factory, config = self.config)
+        key = [ config[:url].to_s, config[:username], config[:password], config[:properties] ]
+        key.concat POOL_SESSION_KEYS.map { |name| config[name] }
+        @@pooled_factories_lock.synchronize do
+          pool = @@pooled_factories[key]
+          return pool if pool && ! pool.closed?
+
+          max_size = ( config[:pool_max_size] || config[:pool] || 5 ).to_i
+          pool = Java::ArjdbcJdbc::PooledConnectionFactory.new(factory, max_size)
+          pool.min_idle = config[:pool_min_idle].to_i if config[:pool_min_idle]
+          # NOTE: AR's checkout_timeout (seconds) applies on the JDBC level as well
+          if timeout = config[:checkout_timeout]
+            pool.checkout_timeout = ( timeout.to_f * 1000 ).to_i
+          end
+          if timeout = config[:pool_idle_timeout] # seconds
+            pool.idle_timeout = ( timeout.to_f * 1000 ).to_i
+          end
+          if interval = config[:pool_validation_interval] # seconds
+            pool.validation_interval = ( interval.to_f * 1000 ).to_i
+          end
+          if threshold = config[:pool_leak_detection_threshold] # seconds
+            pool.leak_detection_threshold = ( threshold.to_f * 1000 ).to_i
+          end
+          pool.alive_sql = config[:connection_alive_sql].to_s if config[:connection_alive_sql]
+          pool.validation_timeout = config[:connection_alive_timeout].to_i if config[:connection_alive_timeout]
+          @@pooled_factories[key] = pool
+        end
       end
 
       # @private
@@ -121,6 +167,55 @@ module ActiveRecord
         end
       end
 
+      # @private
+      @@replica_routers = {}
+
+      # Routes (read-only) queries, outside of transactions, to replicas e.g. :
+      #
+      #   replicas:
+      #     - url: jdbc:postgresql://replica1/blog
+      #     - url: jdbc:postgresql://replica2/blog
+      #   replica_routing: auto # default: only within `with_replica` blocks
+      #   replica_strategy: least_busy # default round_robin
+      #   replica_lag_guard: 500 # (ms) reads stick to the primary after a write
+      #
+      # By default only queries executed within a `with_replica` block get
+      # routed. With `replica_routing: auto` all plain reads are routed, except
+      # locking reads (`FOR UPDATE`/`FOR SHARE`), writes and side-effect
+      # functions (e.g. `nextval`), `with_primary` keeps a block on the primary.
+      # Replica connections are always pooled, settings not specified for a
+      # replica (e.g. :username) are taken from the primary configuration.
+      # Session statements executed on the primary connection (e.g. `SET`s from
+      # `configure_connection`) are replayed on replica connections.
+      # @see Java::ArjdbcJdbc::ReplicaRouter
+      def setup_replica_router
+        replicas = Array(config[:replicas]).map do |replica|
+          replica = { :url => replica } if replica.is_a?(String)
+          replica = replica.inject({}) { |hash, (key, val)| hash[key.to_sym] = val; hash }
+          unless replica[:url]
+            raise ::ActiveRecord::ConnectionNotEstablished, "replica :url not set (got #{replica.inspect})"
+          end
+          config.merge(replica).tap { |c| c.delete(:replicas) }
+        end
+        return if replicas.empty?
+
+        driver = config[:driver_instance] || JdbcDriver.new(config[:driver].to_s, config[:properties])
+        least_busy = config[:replica_strategy].to_s == 'least_busy'
+        factories = replicas.map do |replica|
+          factory = JdbcConnectionFactoryImpl.new(replica[:url].to_s, replica[:username], replica[:password], driver)
+          pooled_connection_factory(factory, replica)
+        end
+
+        key = [ config[:url].to_s, factories, least_busy ]
+        self.replica_router = @@pooled_factories_lock.synchronize do
+          @@replica_routers[key] ||= begin
+            router = Java::ArjdbcJdbc::ReplicaRouter.new(factories.to_java(JdbcConnectionFactory), least_busy)
+            router.lag_guard = config[:replica_lag_guard].to_i if config[:replica_lag_guard]
+            router
+          end
+        end
+      end
+
       private
 
       def jdbc_url
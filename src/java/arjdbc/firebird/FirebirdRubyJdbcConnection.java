@@ -23,6 +23,7 @@
  */
 package arjdbc.firebird;
 
+import arjdbc.jdbc.IdentifierCase;
 import arjdbc.jdbc.RubyJdbcConnection;
 
 import java.sql.Connection;
@@ -81,18 +82,31 @@ public class FirebirdRubyJdbcConnection extends RubyJdbcConnection {
         }
     }
 
-    protected IRubyObject jdbcToRuby(
-        final ThreadContext context, final Ruby runtime,
-        final int column, final int type, final ResultSet resultSet)
-        throws SQLException {
+    private static final ColumnConverter SMALL_CHAR_1_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return smallChar1ToRuby(runtime, resultSet, column);
+        }
+    };
 
+    private static final ColumnConverter SMALL_CHAR_2_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return smallChar2ToRuby(runtime, resultSet, column);
+        }
+    };
+
+    @Override
+    protected ColumnConverter columnConverterFor(final int type) {
         switch (type) {
         case SMALL_CHAR_1:
-            return smallChar1ToRuby(runtime, resultSet, column);
+            return SMALL_CHAR_1_CONVERTER;
         case SMALL_CHAR_2:
-            return smallChar2ToRuby(runtime, resultSet, column);
+            return SMALL_CHAR_2_CONVERTER;
         }
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
+        return super.columnConverterFor(type);
     }
 
     private static IRubyObject smallChar1ToRuby(
@@ -151,7 +165,7 @@ public class FirebirdRubyJdbcConnection extends RubyJdbcConnection {
                 }
             }
 
-            columns[i - 1] = new ColumnData(columnName, columnType, i);
+            columns[i - 1] = newColumnData(columnName, columnType, i);
         }
 
         return columns;
@@ -163,12 +177,12 @@ public class FirebirdRubyJdbcConnection extends RubyJdbcConnection {
 
     @Override
     protected String caseConvertIdentifierForRails(final Connection connection, final String value) {
-        return value == null ? null : value.toLowerCase();
+        return IdentifierCase.toLowerCase(value);
     }
 
     @Override
     protected String caseConvertIdentifierForJdbc(final Connection connection, final String value) {
-        return value == null ? null : value.toUpperCase();
+        return IdentifierCase.toUpperCase(value);
     }
 
 }
@@ -0,0 +1,110 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package arjdbc.jdbc;
+
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * How a database stores (unquoted) identifiers, resolved once from the
+ * meta-data <code>storesUpperCaseIdentifiers()</code> and
+ * <code>storesLowerCaseIdentifiers()</code>.
+ * <br/>
+ * Conversions return the very same string if it's already in the desired case,
+ * (plain) ASCII identifiers are converted without going through the
+ * (locale sensitive) {@link String#toLowerCase()} / {@link String#toUpperCase()}.
+ */
+public enum IdentifierCase {
+
+    UPPER, LOWER, MIXED;
+
+    public static IdentifierCase of(final DatabaseMetaData metaData) throws SQLException {
+        if ( metaData.storesUpperCaseIdentifiers() ) return UPPER;
+        if ( metaData.storesLowerCaseIdentifiers() ) return LOWER;
+        return MIXED;
+    }
+
+    /**
+     * Convert an identifier coming back from the database to a case which Rails is expecting.
+     * @param value
+     * @return lower-cased value if the database stores upper-case identifiers
+     */
+    public String toRails(final String value) {
+        return this == UPPER ? toLowerCase(value) : value;
+    }
+
+    /**
+     * Convert an identifier to the case the database uses for storing it.
+     * @param value
+     * @return converted value
+     */
+    public String toJdbc(final String value) {
+        switch ( this ) {
+            case UPPER: return toUpperCase(value);
+            case LOWER: return toLowerCase(value);
+        }
+        return value;
+    }
+
+    public static String toLowerCase(final String value) {
+        if ( value == null ) return null;
+        final int len = value.length();
+        int i = 0; char c = 0;
+        for ( ; i < len; i++ ) {
+            c = value.charAt(i);
+            if ( c > 127 ) return value.toLowerCase();
+            if ( c >= 'A' && c <= 'Z' ) break;
+        }
+        if ( i == len ) return value; // nothing to convert
+
+        final char[] chars = new char[len];
+        value.getChars(0, i, chars, 0);
+        for ( ; i < len; i++ ) {
+            c = value.charAt(i);
+            if ( c > 127 ) return value.toLowerCase();
+            chars[i] = ( c >= 'A' && c <= 'Z' ) ? (char) ( c + ('a' - 'A') ) : c;
+        }
+        return new String(chars);
+    }
+
+    public static String toUpperCase(final String value) {
+        if ( value == null ) return null;
+        final int len = value.length();
+        int i = 0; char c = 0;
+        for ( ; i < len; i++ ) {
+            c = value.charAt(i);
+            if ( c > 127 ) return value.toUpperCase();
+            if ( c >= 'a' && c <= 'z' ) break;
+        }
+        if ( i == len ) return value; // nothing to convert
+
+        final char[] chars = new char[len];
+        value.getChars(0, i, chars, 0);
+        for ( ; i < len; i++ ) {
+            c = value.charAt(i);
+            if ( c > 127 ) return value.toUpperCase();
+            chars[i] = ( c >= 'a' && c <= 'z' ) ? (char) ( c - ('a' - 'A') ) : c;
+        }
+        return new String(chars);
+    }
+
+}
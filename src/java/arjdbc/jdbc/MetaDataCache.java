@@ -0,0 +1,355 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package arjdbc.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A (schema) meta-data cache, keeps the raw rows returned from
+ * {@link DatabaseMetaData} table, column, primary/imported key and index
+ * lookups (per database URL). Entries expire after a TTL (and get evicted
+ * as new entries are cached) and are expected to get cleared on DDL.
+ */
+final class MetaDataCache {
+
+    private static final Set<String> CACHED_METHODS = new HashSet<String>(Arrays.asList(
+        "getTables", "getColumns", "getPrimaryKeys", "getImportedKeys", "getIndexInfo"
+    ));
+
+    private final Map<String, Map<List<Object>, Rows>> cache =
+        new ConcurrentHashMap<String, Map<List<Object>, Rows>>();
+
+    /**
+     * @param metaData
+     * @param url the database (cache key)
+     * @param ttl entry time-to-live in milliseconds
+     * @return a (caching) meta-data proxy
+     */
+    DatabaseMetaData wrap(final DatabaseMetaData metaData, final String url, final long ttl) {
+        Map<List<Object>, Rows> entries = cache.get(url);
+        if ( entries == null ) {
+            synchronized (cache) {
+                entries = cache.get(url);
+                if ( entries == null ) {
+                    cache.put(url, entries = new ConcurrentHashMap<List<Object>, Rows>());
+                }
+            }
+        }
+        return (DatabaseMetaData) Proxy.newProxyInstance(
+            DatabaseMetaData.class.getClassLoader(),
+            new Class<?>[] { DatabaseMetaData.class },
+            new CachingMetaData(metaData, entries, ttl)
+        );
+    }
+
+    void clear(final String url) {
+        final Map<List<Object>, Rows> entries = cache.get(url);
+        if ( entries != null ) entries.clear();
+    }
+
+    int size(final String url) {
+        final Map<List<Object>, Rows> entries = cache.get(url);
+        return entries == null ? 0 : entries.size();
+    }
+
+    private static final class CachingMetaData implements InvocationHandler {
+
+        private final DatabaseMetaData metaData;
+        private final Map<List<Object>, Rows> entries;
+        private final long ttl;
+
+        CachingMetaData(final DatabaseMetaData metaData, final Map<List<Object>, Rows> entries, final long ttl) {
+            this.metaData = metaData; this.entries = entries; this.ttl = ttl;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if ( ! CACHED_METHODS.contains(name) ) return invokeDelegate(method, args);
+
+            final List<Object> key = new ArrayList<Object>(args.length + 1);
+            key.add(name);
+            for ( final Object arg : args ) {
+                key.add( arg instanceof Object[] ? Arrays.asList((Object[]) arg) : arg );
+            }
+
+            Rows rows = entries.get(key);
+            final long now = System.currentTimeMillis();
+            if ( rows == null || now - rows.created > ttl ) {
+                final ResultSet resultSet = (ResultSet) invokeDelegate(method, args);
+                try {
+                    rows = new Rows(resultSet, now);
+                }
+                finally { RubyJdbcConnection.close(resultSet); }
+                evictExpired(now);
+                entries.put(key, rows);
+            }
+            return rows.newResultSet();
+        }
+
+        // expired entries might never get looked up again (e.g. dropped tables)
+        private void evictExpired(final long now) {
+            final Iterator<Rows> it = entries.values().iterator();
+            while ( it.hasNext() ) {
+                if ( now - it.next().created > ttl ) it.remove();
+            }
+        }
+
+        private Object invokeDelegate(final Method method, final Object[] args) throws Throwable {
+            try {
+                return method.invoke(metaData, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+    }
+
+    /**
+     * Detached result set rows.
+     */
+    static final class Rows {
+
+        final String[] labels;
+        final Map<String, Integer> indexes;
+        final Object[][] values;
+        final long created;
+
+        Rows(final ResultSet resultSet, final long created) throws SQLException {
+            final ResultSetMetaData metaData = resultSet.getMetaData();
+            final int count = metaData.getColumnCount();
+            labels = new String[count];
+            final Map<String, Integer> indexes = new HashMap<String, Integer>(count * 2);
+            for ( int i = 1; i <= count; i++ ) {
+                final String label = metaData.getColumnLabel(i);
+                labels[i - 1] = label;
+                final String key = label.toUpperCase();
+                if ( ! indexes.containsKey(key) ) indexes.put(key, i);
+            }
+            this.indexes = Collections.unmodifiableMap(indexes);
+
+            final List<Object[]> values = new ArrayList<Object[]>();
+            while ( resultSet.next() ) {
+                final Object[] row = new Object[count];
+                for ( int i = 1; i <= count; i++ ) row[i - 1] = resultSet.getObject(i);
+                values.add(row);
+            }
+            this.values = values.toArray(new Object[values.size()][]);
+            this.created = created;
+        }
+
+        Rows(final String[] labels, final Object[][] values, final long created) {
+            this.labels = labels;
+            final Map<String, Integer> indexes = new HashMap<String, Integer>(labels.length * 2);
+            for ( int i = 1; i <= labels.length; i++ ) {
+                final String key = labels[i - 1].toUpperCase();
+                if ( ! indexes.containsKey(key) ) indexes.put(key, i);
+            }
+            this.indexes = Collections.unmodifiableMap(indexes);
+            this.values = values;
+            this.created = created;
+        }
+
+        private Rows(final Rows rows, final List<Object[]> values) {
+            this.labels = rows.labels; this.indexes = rows.indexes;
+            this.values = values.toArray(new Object[values.size()][]);
+            this.created = rows.created;
+        }
+
+        /**
+         * Splits rows into groups (in order of appearance) by column values.
+         * @param columns (1-based) column indexes e.g. catalog, schema and table name
+         * @return rows grouped by the (string) values of the columns
+         */
+        Map<List<String>, Rows> groupBy(final int... columns) {
+            final Map<List<String>, List<Object[]>> groups = new LinkedHashMap<List<String>, List<Object[]>>();
+            for ( final Object[] row : values ) {
+                final List<String> key = keyOf(row, columns);
+                List<Object[]> group = groups.get(key);
+                if ( group == null ) groups.put(key, group = new ArrayList<Object[]>());
+                group.add(row);
+            }
+            final Map<List<String>, Rows> grouped = new LinkedHashMap<List<String>, Rows>(groups.size() * 2);
+            for ( final Map.Entry<List<String>, List<Object[]>> group : groups.entrySet() ) {
+                grouped.put(group.getKey(), new Rows(this, group.getValue()));
+            }
+            return grouped;
+        }
+
+        static List<String> keyOf(final Object[] row, final int... columns) {
+            final String[] key = new String[columns.length];
+            for ( int i = 0; i < columns.length; i++ ) {
+                final Object value = row[columns[i] - 1];
+                key[i] = value == null ? null : value.toString();
+            }
+            return Arrays.asList(key);
+        }
+
+        ResultSet newResultSet() {
+            return (ResultSet) Proxy.newProxyInstance(
+                ResultSet.class.getClassLoader(),
+                new Class<?>[] { ResultSet.class },
+                new RowsResultSet(this)
+            );
+        }
+
+    }
+
+    /**
+     * A (forward-only, read-only) result set "emulation" over detached rows,
+     * implements what's needed to map meta-data results.
+     */
+    private static final class RowsResultSet implements InvocationHandler {
+
+        private final Rows rows;
+        private int row = -1;
+        private boolean wasNull;
+        private boolean closed;
+
+        RowsResultSet(final Rows rows) { this.rows = rows; }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if ( "next".equals(name) ) {
+                if ( row < rows.values.length ) row++;
+                return row < rows.values.length;
+            }
+            if ( "close".equals(name) ) { closed = true; return null; }
+            if ( "isClosed".equals(name) ) return closed;
+            if ( "wasNull".equals(name) ) return wasNull;
+            if ( "getMetaData".equals(name) ) return newMetaData();
+            if ( "findColumn".equals(name) ) return columnIndex(args[0]);
+            if ( "getStatement".equals(name) ) return null;
+            if ( "getType".equals(name) ) return ResultSet.TYPE_FORWARD_ONLY;
+            if ( "getConcurrency".equals(name) ) return ResultSet.CONCUR_READ_ONLY;
+            if ( "getWarnings".equals(name) ) return null;
+            if ( "clearWarnings".equals(name) ) return null;
+            if ( "isBeforeFirst".equals(name) ) return row < 0 && rows.values.length > 0;
+            if ( "isAfterLast".equals(name) ) return row >= rows.values.length && rows.values.length > 0;
+            if ( "getRow".equals(name) ) return row < rows.values.length ? row + 1 : 0;
+            if ( "equals".equals(name) ) return proxy == args[0];
+            if ( "hashCode".equals(name) ) return System.identityHashCode(proxy);
+            if ( "toString".equals(name) ) return "MetaDataCache.RowsResultSet@" + Integer.toHexString(System.identityHashCode(proxy));
+            if ( "isWrapperFor".equals(name) ) return false;
+
+            if ( name.startsWith("get") && args != null && args.length == 1 ) {
+                final Object value = value(args[0]);
+                return convert(name, value);
+            }
+            throw new SQLFeatureNotSupportedException(name + "() not supported on a cached result set");
+        }
+
+        private int columnIndex(final Object column) throws SQLException {
+            if ( column instanceof Integer ) return (Integer) column;
+            final Integer index = rows.indexes.get( column.toString().toUpperCase() );
+            if ( index == null ) throw new SQLException("invalid column label: " + column);
+            return index;
+        }
+
+        private Object value(final Object column) throws SQLException {
+            if ( closed ) throw new SQLException("result set closed");
+            if ( row < 0 || row >= rows.values.length ) throw new SQLException("no current row");
+            final int index = columnIndex(column);
+            if ( index < 1 || index > rows.labels.length ) {
+                throw new SQLException("invalid column index: " + index);
+            }
+            final Object value = rows.values[row][index - 1];
+            wasNull = value == null;
+            return value;
+        }
+
+        private static Object convert(final String getter, final Object value) throws SQLException {
+            if ( "getObject".equals(getter) ) return value;
+            if ( "getString".equals(getter) ) return value == null ? null : value.toString();
+            if ( "getBoolean".equals(getter) ) {
+                if ( value == null ) return false;
+                if ( value instanceof Boolean ) return value;
+                if ( value instanceof Number ) return ((Number) value).intValue() != 0;
+                final String str = value.toString().trim();
+                return "1".equals(str) || "true".equalsIgnoreCase(str) || "Y".equalsIgnoreCase(str);
+            }
+            if ( "getBigDecimal".equals(getter) ) {
+                if ( value == null ) return null;
+                if ( value instanceof BigDecimal ) return value;
+                return new BigDecimal(value.toString());
+            }
+            final Number number;
+            if ( value == null ) number = 0;
+            else if ( value instanceof Number ) number = (Number) value;
+            else if ( value instanceof Boolean ) number = ((Boolean) value) ? 1 : 0;
+            else {
+                try { number = new BigDecimal(value.toString().trim()); }
+                catch (NumberFormatException e) {
+                    throw new SQLException("can not convert '" + value + "' using " + getter + "()");
+                }
+            }
+            if ( "getInt".equals(getter) ) return number.intValue();
+            if ( "getLong".equals(getter) ) return number.longValue();
+            if ( "getShort".equals(getter) ) return number.shortValue();
+            if ( "getByte".equals(getter) ) return number.byteValue();
+            if ( "getDouble".equals(getter) ) return number.doubleValue();
+            if ( "getFloat".equals(getter) ) return number.floatValue();
+            throw new SQLFeatureNotSupportedException(getter + "() not supported on a cached result set");
+        }
+
+        private ResultSetMetaData newMetaData() {
+            return (ResultSetMetaData) Proxy.newProxyInstance(
+                ResultSetMetaData.class.getClassLoader(),
+                new Class<?>[] { ResultSetMetaData.class },
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        final String name = method.getName();
+                        if ( "getColumnCount".equals(name) ) return rows.labels.length;
+                        if ( "getColumnLabel".equals(name) || "getColumnName".equals(name) ) {
+                            return rows.labels[ (Integer) args[0] - 1 ];
+                        }
+                        throw new SQLFeatureNotSupportedException(name + "() not supported on a cached result set");
+                    }
+                }
+            );
+        }
+
+    }
+
+}
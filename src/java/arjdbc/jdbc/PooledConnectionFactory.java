@@ -0,0 +1,419 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package arjdbc.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A (physical) connection pooling factory, wrapping another factory.
+ * <br/>
+ * Connections handed out are proxies, closing them returns the physical
+ * connection to the pool. Borrowing and returning do not lock : idle
+ * connections are kept in a concurrent (LIFO) deque and the pool size is
+ * reserved using CAS. Validation happens on borrow (for connections that
+ * have been idle for longer than the validation interval), idle connections
+ * get evicted (above the minimum idle count) and borrowed connections might
+ * be reported as leaked by a shared background "housekeeper".
+ */
+public class PooledConnectionFactory implements JdbcConnectionFactory {
+
+    private final JdbcConnectionFactory factory;
+
+    private final int maxSize;
+    private int minIdle = 0;
+    private long idleTimeout = 10 * 60 * 1000; // ms
+    private long checkoutTimeout = 5 * 1000; // ms
+    private long validationInterval = 1000; // ms
+    private int validationTimeout = 0; // seconds (0 - no timeout)
+    private String aliveSQL;
+    private long leakDetectionThreshold = 0; // ms (0 - disabled)
+    private long housekeepingInterval = 30 * 1000; // ms
+
+    private final ConcurrentLinkedDeque<PooledEntry> idle = new ConcurrentLinkedDeque<PooledEntry>();
+    private final Set<PooledEntry> borrowed =
+        Collections.newSetFromMap(new ConcurrentHashMap<PooledEntry, Boolean>());
+    private final AtomicInteger size = new AtomicInteger(0);
+
+    private final AtomicBoolean started = new AtomicBoolean(false);
+    private volatile boolean closed;
+    private volatile ScheduledFuture<?> housekeeping;
+
+    public PooledConnectionFactory(final JdbcConnectionFactory factory, final int maxSize) {
+        if ( factory == null ) throw new IllegalArgumentException("null factory");
+        if ( maxSize <= 0 ) throw new IllegalArgumentException("max size must be positive: " + maxSize);
+        this.factory = factory; this.maxSize = maxSize;
+    }
+
+    /**
+     * Borrow a connection from the pool, creating a new (physical) one if
+     * none is idle and the pool has not reached its maximum size.
+     * @return a pooled connection (closing it returns it to the pool)
+     * @throws SQLException
+     * @throws SQLTransientConnectionException if none got available in time
+     */
+    @Override
+    public Connection newConnection() throws SQLException {
+        if ( closed ) throw new SQLException("connection pool has been closed");
+        if ( ! started.get() && started.compareAndSet(false, true) ) startHousekeeping();
+
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(checkoutTimeout);
+        long backoff = 10 * 1000; // ns
+        while ( true ) {
+            PooledEntry entry = idle.pollFirst();
+            if ( entry != null ) {
+                if ( isValid(entry) ) return borrow(entry);
+                destroy(entry); continue;
+            }
+            if ( reserve() ) {
+                try {
+                    entry = newEntry();
+                }
+                catch (SQLException e) { size.decrementAndGet(); throw e; }
+                catch (RuntimeException e) { size.decrementAndGet(); throw e; }
+                return borrow(entry);
+            }
+            final long remaining = deadline - System.nanoTime();
+            if ( remaining <= 0 ) {
+                throw new SQLTransientConnectionException("connection pool exhausted (max size: " +
+                    maxSize + ") no connection available within " + checkoutTimeout + "ms");
+            }
+            LockSupport.parkNanos(this, Math.min(backoff, remaining));
+            if ( backoff < 10 * 1000 * 1000 ) backoff <<= 1; // up to ~ 10ms
+            if ( Thread.interrupted() ) {
+                throw new SQLException("interrupted while waiting for a connection");
+            }
+        }
+    }
+
+    private boolean reserve() {
+        int current;
+        while ( ( current = size.get() ) < maxSize ) {
+            if ( size.compareAndSet(current, current + 1) ) return true;
+        }
+        return false;
+    }
+
+    private PooledEntry newEntry() throws SQLException {
+        final Connection connection = factory.newConnection();
+        try {
+            return new PooledEntry(connection);
+        }
+        catch (SQLException e) { RubyJdbcConnection.close(connection); throw e; }
+        catch (RuntimeException e) { RubyJdbcConnection.close(connection); throw e; }
+    }
+
+    private Connection borrow(final PooledEntry entry) {
+        entry.borrowedAt = System.currentTimeMillis();
+        entry.borrowedBy = leakDetectionThreshold > 0 ? new Throwable("connection borrowed") : null;
+        entry.leakReported = false;
+        borrowed.add(entry);
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] { Connection.class },
+            new PooledConnectionHandler(this, entry)
+        );
+    }
+
+    void release(final PooledEntry entry) {
+        borrowed.remove(entry);
+        entry.borrowedBy = null;
+        if ( closed ) { destroy(entry); return; }
+        final Connection connection = entry.connection;
+        try {
+            if ( connection.isClosed() ) { destroy(entry); return; }
+            if ( ! connection.getAutoCommit() ) {
+                connection.rollback(); // do not leak an open transaction
+                connection.setAutoCommit(true);
+            }
+            // do not leak connection state (to the next borrower) either :
+            if ( connection.getTransactionIsolation() != entry.isolation ) {
+                connection.setTransactionIsolation(entry.isolation);
+            }
+            if ( connection.isReadOnly() != entry.readOnly ) {
+                connection.setReadOnly(entry.readOnly);
+            }
+            if ( entry.catalog != null && ! entry.catalog.equals(connection.getCatalog()) ) {
+                connection.setCatalog(entry.catalog);
+            }
+            connection.clearWarnings();
+        }
+        catch (SQLException e) { destroy(entry); return; }
+        entry.lastUsed = System.currentTimeMillis();
+        idle.offerFirst(entry);
+    }
+
+    private boolean isValid(final PooledEntry entry) {
+        if ( System.currentTimeMillis() - entry.lastUsed < validationInterval ) return true;
+        final Connection connection = entry.connection;
+        final String aliveSQL = this.aliveSQL;
+        if ( aliveSQL != null ) {
+            Statement statement = null;
+            try {
+                statement = connection.createStatement();
+                if ( validationTimeout > 0 ) statement.setQueryTimeout(validationTimeout);
+                statement.execute(aliveSQL);
+                return true;
+            }
+            catch (Exception e) { return false; }
+            finally { RubyJdbcConnection.close(statement); }
+        }
+        try {
+            return connection.isValid(validationTimeout); // since JDBC 4.0
+        }
+        catch (SQLException e) { return false; }
+        catch (AbstractMethodError e) { // non-JDBC 4.0 driver
+            try { return ! connection.isClosed(); }
+            catch (SQLException ex) { return false; }
+        }
+    }
+
+    private void destroy(final PooledEntry entry) {
+        size.decrementAndGet();
+        RubyJdbcConnection.close(entry.connection);
+    }
+
+    /**
+     * Close all idle connections and stop handing out new ones, borrowed
+     * connections get closed as they're returned.
+     */
+    public void close() {
+        closed = true;
+        final ScheduledFuture<?> housekeeping = this.housekeeping;
+        if ( housekeeping != null ) housekeeping.cancel(false);
+        PooledEntry entry;
+        while ( ( entry = idle.pollFirst() ) != null ) destroy(entry);
+    }
+
+    public boolean isClosed() { return closed; }
+
+    private void startHousekeeping() {
+        if ( housekeepingInterval <= 0 ) return;
+        housekeeping = getHousekeeper().scheduleWithFixedDelay(new Runnable() {
+            public void run() { housekeep(); }
+        }, housekeepingInterval, housekeepingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Evict idle connections (keeping at least min idle), fill up the pool
+     * to have min idle connections and report borrowed connections that
+     * have not been returned in time.
+     */
+    void housekeep() {
+        if ( closed ) return;
+        final long now = System.currentTimeMillis();
+
+        if ( idleTimeout > 0 ) {
+            for ( final PooledEntry entry : idle ) {
+                if ( idle.size() <= minIdle ) break;
+                if ( now - entry.lastUsed > idleTimeout && idle.remove(entry) ) {
+                    destroy(entry);
+                }
+            }
+        }
+
+        while ( ! closed && idle.size() < minIdle && reserve() ) {
+            try {
+                final PooledEntry entry = newEntry();
+                entry.lastUsed = now;
+                idle.offerLast(entry);
+            }
+            catch (Exception e) { size.decrementAndGet(); break; } // retry next time
+        }
+
+        if ( leakDetectionThreshold > 0 ) {
+            for ( final PooledEntry entry : borrowed ) {
+                if ( ! entry.leakReported && now - entry.borrowedAt > leakDetectionThreshold ) {
+                    entry.leakReported = true;
+                    reportLeak(entry, now - entry.borrowedAt);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports a (potential) connection leak, by default a warning (on stderr)
+     * including the stack trace of where the connection was borrowed.
+     * @param entry
+     * @param time the time (in ms) the connection has been borrowed for
+     */
+    protected void reportLeak(final PooledEntry entry, final long time) {
+        final Throwable borrowedBy = entry.borrowedBy;
+        // NOTE: reported whenever leak detection is on, not only while debugging
+        System.err.println("WARN: possible connection leak, " + entry.connection +
+            " has not been returned to the pool for " + time + "ms");
+        if ( borrowedBy != null ) borrowedBy.printStackTrace(System.err);
+    }
+
+    private static ScheduledExecutorService housekeeper;
+
+    private static synchronized ScheduledExecutorService getHousekeeper() {
+        if ( housekeeper == null ) {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1,
+                new ThreadFactory() {
+                    public Thread newThread(final Runnable task) {
+                        final Thread thread = new Thread(task, "arjdbc-pool-housekeeper");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }
+            );
+            executor.setRemoveOnCancelPolicy(true);
+            housekeeper = executor;
+        }
+        return housekeeper;
+    }
+
+    public int getMaxSize() { return maxSize; }
+
+    /**
+     * @return number of (physical) connections, idle and borrowed
+     */
+    public int getSize() { return size.get(); }
+
+    public int getIdleCount() { return idle.size(); }
+
+    public int getActiveCount() { return borrowed.size(); }
+
+    public int getMinIdle() { return minIdle; }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = Math.max(0, Math.min(minIdle, maxSize));
+    }
+
+    public long getIdleTimeout() { return idleTimeout; }
+
+    public void setIdleTimeout(long idleTimeout) { this.idleTimeout = idleTimeout; }
+
+    public long getCheckoutTimeout() { return checkoutTimeout; }
+
+    public void setCheckoutTimeout(long checkoutTimeout) { this.checkoutTimeout = checkoutTimeout; }
+
+    public long getValidationInterval() { return validationInterval; }
+
+    public void setValidationInterval(long validationInterval) { this.validationInterval = validationInterval; }
+
+    public int getValidationTimeout() { return validationTimeout; }
+
+    public void setValidationTimeout(int validationTimeout) { this.validationTimeout = validationTimeout; }
+
+    public String getAliveSQL() { return aliveSQL; }
+
+    public void setAliveSQL(String aliveSQL) { this.aliveSQL = aliveSQL; }
+
+    public long getLeakDetectionThreshold() { return leakDetectionThreshold; }
+
+    public void setLeakDetectionThreshold(long leakDetectionThreshold) { this.leakDetectionThreshold = leakDetectionThreshold; }
+
+    public long getHousekeepingInterval() { return housekeepingInterval; }
+
+    public void setHousekeepingInterval(long housekeepingInterval) { this.housekeepingInterval = housekeepingInterval; }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[size=" + getSize() + ", idle=" + getIdleCount() +
+            ", active=" + getActiveCount() + ", max_size=" + maxSize + "]";
+    }
+
+    protected static final class PooledEntry {
+
+        final Connection connection;
+        // initial state, restored when returned to the pool :
+        final int isolation;
+        final boolean readOnly;
+        final String catalog;
+        volatile long lastUsed = System.currentTimeMillis();
+        volatile long borrowedAt;
+        volatile Throwable borrowedBy;
+        volatile boolean leakReported;
+
+        PooledEntry(final Connection connection) throws SQLException {
+            this.connection = connection;
+            this.isolation = connection.getTransactionIsolation();
+            this.readOnly = connection.isReadOnly();
+            this.catalog = connection.getCatalog();
+        }
+
+    }
+
+    private static final class PooledConnectionHandler implements InvocationHandler {
+
+        private final PooledConnectionFactory pool;
+        private final PooledEntry entry;
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        PooledConnectionHandler(final PooledConnectionFactory pool, final PooledEntry entry) {
+            this.pool = pool; this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if ( "close".equals(name) && args == null ) {
+                if ( closed.compareAndSet(false, true) ) pool.release(entry);
+                return null;
+            }
+            if ( "isClosed".equals(name) && args == null ) {
+                return closed.get() || entry.connection.isClosed();
+            }
+            if ( "equals".equals(name) && args != null && args.length == 1 ) {
+                return proxy == args[0];
+            }
+            if ( "hashCode".equals(name) && args == null ) {
+                return System.identityHashCode(proxy);
+            }
+            if ( "toString".equals(name) && args == null ) {
+                return "Pooled" + entry.connection.toString();
+            }
+            if ( closed.get() ) {
+                if ( "isValid".equals(name) ) return Boolean.FALSE;
+                throw new SQLException("connection has been returned to the pool");
+            }
+            try {
+                return method.invoke(entry.connection, args);
+            }
+            catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package arjdbc.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Routes (read-only) queries to replica connections, only done for queries
+ * explicitly requested to run on a replica (<code>with_replica</code>).
+ * <br/>
+ * Replicas are picked round-robin or the least busy one (with the least
+ * queries in-flight) is used. Replica connections are only used for the
+ * duration of a single query, thus the replica factories should be pooling.
+ * After a write (on the primary) reads are pinned to the primary for the
+ * configured lag guard period, writes are tracked per router which might be
+ * shared between several connections.
+ */
+public class ReplicaRouter {
+
+    private final JdbcConnectionFactory[] replicas;
+    private final AtomicInteger[] busy;
+    private final boolean leastBusy;
+
+    private final AtomicInteger next = new AtomicInteger(0);
+
+    private long lagGuard = 0; // ms
+    private volatile long lastWrite = 0;
+
+    public ReplicaRouter(final JdbcConnectionFactory[] replicas, final boolean leastBusy) {
+        if ( replicas == null || replicas.length == 0 ) {
+            throw new IllegalArgumentException("no replicas given");
+        }
+        this.replicas = replicas.clone();
+        this.busy = new AtomicInteger[replicas.length];
+        for ( int i = 0; i < busy.length; i++ ) busy[i] = new AtomicInteger(0);
+        this.leastBusy = leastBusy;
+    }
+
+    /**
+     * @return true if reads should not be routed to replicas (recent write)
+     */
+    public boolean isPinned() {
+        return lagGuard > 0 && System.currentTimeMillis() - lastWrite < lagGuard;
+    }
+
+    /**
+     * Marks a write on the primary (starts the lag guard period).
+     */
+    public void markWrite() {
+        if ( lagGuard > 0 ) lastWrite = System.currentTimeMillis();
+    }
+
+    /**
+     * @return the (index of the) replica to route the next read to
+     */
+    int nextReplica() {
+        final int count = replicas.length;
+        if ( count == 1 ) return 0;
+        final int start = ( next.getAndIncrement() & Integer.MAX_VALUE ) % count;
+        if ( ! leastBusy ) return start;
+        int replica = start; int min = busy[start].get();
+        for ( int i = 1; i < count && min > 0; i++ ) {
+            final int r = ( start + i ) % count; final int b = busy[r].get();
+            if ( b < min ) { min = b; replica = r; }
+        }
+        return replica;
+    }
+
+    Connection newConnection(final int replica) throws SQLException {
+        busy[replica].incrementAndGet();
+        try {
+            return replicas[replica].newConnection();
+        }
+        catch (SQLException e) { busy[replica].decrementAndGet(); throw e; }
+        catch (RuntimeException e) { busy[replica].decrementAndGet(); throw e; }
+    }
+
+    void release(final int replica, final Connection connection) {
+        busy[replica].decrementAndGet();
+        RubyJdbcConnection.close(connection);
+    }
+
+    public int getReplicaCount() { return replicas.length; }
+
+    public boolean isLeastBusy() { return leastBusy; }
+
+    public long getLagGuard() { return lagGuard; }
+
+    public void setLagGuard(long lagGuard) { this.lagGuard = lagGuard; }
+
+}
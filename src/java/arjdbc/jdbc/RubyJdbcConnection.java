@@ -25,6 +25,7 @@
  ***** END LICENSE BLOCK *****/
 package arjdbc.jdbc;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
@@ -35,7 +36,17 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.Array;
+import java.sql.BatchUpdateException;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
@@ -51,15 +62,32 @@ import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TimeZone;
-
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import org.jcodings.specific.UTF8Encoding;
 import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.GJChronology;
 import org.jruby.Ruby;
 import org.jruby.RubyArray;
 import org.jruby.RubyBignum;
@@ -100,6 +128,13 @@ public class RubyJdbcConnection extends RubyObject {
     private static final String[] TABLE_TYPES = new String[] { "TABLE", "VIEW", "SYNONYM" };
 
     private JdbcConnectionFactory connectionFactory;
+    private ReplicaRouter replicaRouter;
+    private Connection readConnection; // replica connection (while in use)
+    private Boolean replicaRouting; // TRUE within with_replica, FALSE within with_primary, null - as configured
+    private Boolean autoCommit; // (primary) connection state - null if unknown
+    private IdentifierCase identifierCase; // (primary) connection's - null if not resolved
+    private boolean pendingTransaction; // lazy begin (not yet started)
+    private IRubyObject pendingIsolation;
 
     protected RubyJdbcConnection(Ruby runtime, RubyClass metaClass) {
         super(runtime, metaClass);
@@ -115,6 +150,8 @@ public class RubyJdbcConnection extends RubyObject {
         RubyClass jdbcConnection = getConnectionAdapters(runtime).
             defineClassUnder("JdbcConnection", runtime.getObject(), ALLOCATOR);
         jdbcConnection.defineAnnotatedMethods(RubyJdbcConnection.class);
+        jdbcConnection.defineClassUnder("AsyncResult", runtime.getObject(), ObjectAllocator.NOT_ALLOCATABLE_ALLOCATOR).
+            defineAnnotatedMethods(AsyncResult.class);
         return jdbcConnection;
     }
 
@@ -199,6 +236,10 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = {"begin", "transaction"}, required = 1) // optional isolation argument for AR-4.0
     public IRubyObject begin(final ThreadContext context, final IRubyObject isolation) {
+        if ( getConnectionConfig(context).lazyTransactions ) {
+            if ( ! isolation.isNil() ) mapTransactionIsolationLevel(isolation); // validate early
+            return beginLazy(context, isolation.isNil() ? null : isolation);
+        }
         try { // handleException == false so we can handle setTXIsolation
             return withConnection(context, false, new Callable<IRubyObject>() {
                 public IRubyObject call(final Connection connection) throws SQLException {
@@ -212,6 +253,9 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = {"begin", "transaction"}) // optional isolation argument for AR-4.0
     public IRubyObject begin(final ThreadContext context) {
+        if ( getConnectionConfig(context).lazyTransactions ) {
+            return beginLazy(context, null);
+        }
         try { // handleException == false so we can handle setTXIsolation
             return withConnection(context, false, new Callable<IRubyObject>() {
                 public IRubyObject call(final Connection connection) throws SQLException {
@@ -228,10 +272,66 @@ public class RubyJdbcConnection extends RubyObject {
         if ( isolation != null ) {
             setTransactionIsolation(context, connection, isolation);
         }
-        if ( connection.getAutoCommit() ) connection.setAutoCommit(false);
+        setAutoCommit(connection, false);
+        return context.nil;
+    }
+
+    /**
+     * Only records that a transaction should be started, it actually starts
+     * with the first statement executed.
+     * @see #startPendingTransaction(ThreadContext, Connection)
+     */
+    private IRubyObject beginLazy(final ThreadContext context, final IRubyObject isolation) {
+        if ( autoCommit == null || autoCommit.booleanValue() ) { // (might be) not in a transaction
+            pendingTransaction = true; pendingIsolation = isolation;
+        }
         return context.nil;
     }
 
+    /**
+     * Starts a (lazy) transaction if one is pending.
+     * @param context
+     * @param connection
+     * @throws SQLException
+     */
+    protected final void startPendingTransaction(final ThreadContext context, final Connection connection)
+        throws SQLException {
+        if ( ! pendingTransaction ) return;
+        final IRubyObject isolation = pendingIsolation;
+        pendingTransaction = false; pendingIsolation = null;
+        beginTransaction(context, connection, isolation);
+    }
+
+    /**
+     * Auto-commit state of the (primary) connection, tracked to avoid asking
+     * the driver (might be a round-trip) with every statement.
+     * @param connection the (current) connection
+     * @return true if in auto-commit mode (not in a transaction)
+     * @throws SQLException
+     */
+    protected final boolean isAutoCommit(final Connection connection) throws SQLException {
+        Boolean autoCommit = this.autoCommit;
+        if ( autoCommit == null ) {
+            this.autoCommit = autoCommit = connection.getAutoCommit();
+        }
+        return autoCommit.booleanValue();
+    }
+
+    /**
+     * Sets the auto-commit mode of the (primary) connection unless already set.
+     * @param connection the (current) connection
+     * @param autoCommit
+     * @throws SQLException
+     */
+    protected final void setAutoCommit(final Connection connection, final boolean autoCommit)
+        throws SQLException {
+        final Boolean current = this.autoCommit;
+        if ( current != null && current.booleanValue() == autoCommit ) return;
+        this.autoCommit = null; // unknown in case setAutoCommit fails
+        connection.setAutoCommit(autoCommit);
+        this.autoCommit = autoCommit;
+    }
+
     protected final void setTransactionIsolation(final ThreadContext context, final Connection connection,
         final IRubyObject isolation) throws SQLException {
         final int level = mapTransactionIsolationLevel(isolation);
@@ -247,16 +347,23 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "commit")
     public IRubyObject commit(final ThreadContext context) {
+        if ( pendingTransaction ) { // nothing executed since (a lazy) begin
+            pendingTransaction = false; pendingIsolation = null;
+            return context.runtime.getTrue(); // as if started
+        }
         final Connection connection = getConnection(context, true);
         try {
-            if ( ! connection.getAutoCommit() ) {
+            if ( ! isAutoCommit(connection) ) {
+                releaseLobs(); // LOB locators are not valid once the transaction ends
                 try {
                     connection.commit();
+                    markWrite();
+                    schemaCommitted(context);
                     resetSavepoints(context); // if any
                     return context.getRuntime().newBoolean(true);
                 }
                 finally {
-                    connection.setAutoCommit(true);
+                    setAutoCommit(connection, true);
                 }
             }
             return context.getRuntime().getNil();
@@ -268,15 +375,21 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "rollback")
     public IRubyObject rollback(final ThreadContext context) {
+        if ( pendingTransaction ) { // nothing executed since (a lazy) begin
+            pendingTransaction = false; pendingIsolation = null;
+            return context.runtime.getTrue(); // as if started
+        }
         final Connection connection = getConnection(context, true);
         try {
-            if ( ! connection.getAutoCommit() ) {
+            if ( ! isAutoCommit(connection) ) {
+                releaseLobs(); // LOB locators are not valid once the transaction ends
                 try {
                     connection.rollback();
+                    schemaCommitted(context);
                     resetSavepoints(context); // if any
                     return context.runtime.getTrue();
                 } finally {
-                    connection.setAutoCommit(true);
+                    setAutoCommit(connection, true);
                 }
             }
             return context.getRuntime().getNil();
@@ -302,7 +415,8 @@ public class RubyJdbcConnection extends RubyObject {
         final Connection connection = getConnection(context, true);
 
         try {
-            connection.setAutoCommit(false);
+            startPendingTransaction(context, connection);
+            setAutoCommit(connection, false);
 
             final Savepoint savepoint ;
             // NOTE: this will auto-start a DB transaction even invoked outside
@@ -339,6 +453,7 @@ public class RubyJdbcConnection extends RubyObject {
                 throw context.getRuntime().newRuntimeError("could not rollback savepoint: '" + name + "' (not set)");
             }
             connection.rollback(savepoint);
+            if ( schemaChanged ) { clearColumnsCache(); clearMetaDataCache(context); }
             return context.getRuntime().getNil();
         }
         catch (SQLException e) {
@@ -404,6 +519,51 @@ public class RubyJdbcConnection extends RubyObject {
         return context.getRuntime().getNil();
     }
 
+    @JRubyMethod(name = "replica_router")
+    public IRubyObject replica_router(final ThreadContext context) {
+        return convertJavaToRuby( replicaRouter );
+    }
+
+    @JRubyMethod(name = "replica_router=", required = 1)
+    public IRubyObject set_replica_router(final ThreadContext context, final IRubyObject router) {
+        replicaRouter = router.isNil() ? null : (ReplicaRouter) router.toJava(ReplicaRouter.class);
+        return context.nil;
+    }
+
+    /**
+     * Queries executed within the given block might be routed to a replica
+     * (outside of transactions), regardless of the <code>:replica_routing</code>
+     * setting.
+     * @param context
+     * @param block
+     * @return the block's result
+     */
+    @JRubyMethod(name = "with_replica")
+    public IRubyObject with_replica(final ThreadContext context, final Block block) {
+        return withReplicaRouting(context, Boolean.TRUE, block);
+    }
+
+    /**
+     * Queries executed within the given block go to the primary, even with
+     * automatic (<code>replica_routing: auto</code>) routing.
+     * @param context
+     * @param block
+     * @return the block's result
+     */
+    @JRubyMethod(name = "with_primary")
+    public IRubyObject with_primary(final ThreadContext context, final Block block) {
+        return withReplicaRouting(context, Boolean.FALSE, block);
+    }
+
+    private IRubyObject withReplicaRouting(final ThreadContext context, final Boolean routing, final Block block) {
+        final Boolean previous = replicaRouting;
+        replicaRouting = routing; // the inner-most block wins
+        try {
+            return block.yield(context, context.nil);
+        }
+        finally { replicaRouting = previous; }
+    }
+
     /**
      * Called during <code>initialize</code> after the connection factory
      * has been set to check if we can connect and/or perform any initialization
@@ -426,6 +586,7 @@ public class RubyJdbcConnection extends RubyObject {
     }
 
     private IRubyObject initConnection(final ThreadContext context) throws SQLException {
+        refreshConfig(context);
         final IRubyObject jdbcConnection = setConnection(context, newConnection());
         final IRubyObject adapter = callMethod("adapter"); // self.adapter
         if ( ! adapter.isNil() ) {
@@ -447,6 +608,16 @@ public class RubyJdbcConnection extends RubyObject {
                 if (getConnection(context, false) == null) reconnect(context);
             }
         }
+        // the (raw) connection might get used directly (e.g. createArrayOf),
+        // thus a (lazy) transaction needs to be started
+        try {
+            startPendingTransaction(context, getConnection(context, true));
+        }
+        catch (SQLException e) {
+            return handleException(context, e);
+        }
+        // ... or setAutoCommit(false) might get called on it directly
+        autoCommit = null; // tracked state no longer reliable
 
         return getInstanceVariable("@connection");
     }
@@ -484,6 +655,7 @@ public class RubyJdbcConnection extends RubyObject {
         try {
             final Connection connection = newConnection();
             final IRubyObject result = setConnection(context, connection);
+            refreshConfig(context);
             final IRubyObject adapter = callMethod("adapter");
             if ( ! adapter.isNil() ) {
                 if ( adapter.respondsTo("configure_connection") ) {
@@ -548,17 +720,23 @@ public class RubyJdbcConnection extends RubyObject {
 
     @JRubyMethod(name = "execute", required = 1)
     public IRubyObject execute(final ThreadContext context, final IRubyObject sql) {
-        return withConnection(context, new Callable<IRubyObject>() {
+        final boolean select = isSelect(sql.convertToString());
+        final String query = sql.convertToString().getUnicodeValue();
+        final Callable<IRubyObject> execute = new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
                 Statement statement = null;
-                final String query = sql.convertToString().getUnicodeValue();
-
                 try {
+                    if ( ! select ) markWrite();
+
                     statement = createStatement(context, connection);
 
                     // For DBs that do support multiple statements, lets return the last result set
                     // to be consistent with AR
                     boolean hasResultSet = doExecute(statement, query);
+                    if ( ! select ) {
+                        recordSessionSQL(query);
+                        if ( isDDL(query) ) schemaChanged(context, connection);
+                    }
                     int updateCount = statement.getUpdateCount();
 
                     ColumnData[] columns = null;
@@ -573,7 +751,7 @@ public class RubyJdbcConnection extends RubyObject {
                             // Unfortunately the result set gets closed when getMoreResults()
                             // is called, so we have to process the result sets as we get them
                             // this shouldn't be an issue in most cases since we're only getting 1 result set anyways
-                            columns = extractColumns(context.runtime, connection, resultSet, false);
+                            columns = extractColumns(context.runtime, connection, resultSet, query);
                             result = mapToResult(context, context.runtime, connection, resultSet, columns);
                         } else {
                             resultSet = null;
@@ -598,21 +776,17 @@ public class RubyJdbcConnection extends RubyObject {
                     close(statement);
                 }
             }
-        });
+        };
+        return select ? withReadConnection(context, query, execute) : withConnection(context, execute);
     }
 
     protected Statement createStatement(final ThreadContext context, final Connection connection)
         throws SQLException {
         final Statement statement = connection.createStatement();
-        IRubyObject statementEscapeProcessing = getConfigValue(context, "statement_escape_processing");
         // NOTE: disable (driver) escape processing by default, it's not really
         // needed for AR statements ... if users need it they might configure :
-        if ( statementEscapeProcessing.isNil() ) {
-            statement.setEscapeProcessing(false);
-        }
-        else {
-            statement.setEscapeProcessing(statementEscapeProcessing.isTrue());
-        }
+        final Boolean escapeProcessing = getConnectionConfig(context).statementEscapeProcessing;
+        statement.setEscapeProcessing(escapeProcessing != null && escapeProcessing.booleanValue());
         return statement;
     }
 
@@ -628,6 +802,57 @@ public class RubyJdbcConnection extends RubyObject {
         return statement.execute(query);
     }
 
+    private static final String[] NO_SQL = new String[0];
+
+    // SET/USE/ALTER SESSION statements executed (e.g. by the adapter's configure_connection)
+    private volatile String[] sessionSQL = NO_SQL; // copy-on-write
+
+    private static final int MAX_SESSION_SQL = 32;
+
+    private static final Pattern SESSION_SQL =
+        Pattern.compile("^\\s*(SET|USE|ALTER\\s+SESSION)\\s", Pattern.CASE_INSENSITIVE);
+    private static final Pattern NON_SESSION_SQL = // transaction scoped (or state we track)
+        Pattern.compile("^\\s*SET\\s+(LOCAL|TRANSACTION|CONSTRAINTS|AUTOCOMMIT)\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern RESET_SESSION_SQL =
+        Pattern.compile("^\\s*(DISCARD|RESET)\\s+ALL\\b", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Remembers session statements executed on the (primary) connection, so
+     * that dedicated connections (async queries, replicas) can be configured
+     * the same way (search path, time zone, encoding etc).
+     * @param query an executed (non-select) statement
+     */
+    private synchronized void recordSessionSQL(final String query) {
+        if ( RESET_SESSION_SQL.matcher(query).find() ) { sessionSQL = NO_SQL; return; }
+        if ( ! SESSION_SQL.matcher(query).find() || NON_SESSION_SQL.matcher(query).find() ) return;
+
+        final String[] session = sessionSQL;
+        for ( final String sql : session ) {
+            if ( sql.equals(query) ) return; // already recorded
+        }
+        final int start = session.length < MAX_SESSION_SQL ? 0 : 1; // drop the oldest
+        final String[] newSession = new String[session.length - start + 1];
+        System.arraycopy(session, start, newSession, 0, session.length - start);
+        newSession[newSession.length - 1] = query;
+        sessionSQL = newSession;
+    }
+
+    /**
+     * Configures a (dedicated) connection by executing the recorded session SQL.
+     * @param connection
+     * @param sessionSQL
+     * @throws SQLException
+     */
+    protected void configureConnection(final Connection connection, final String[] sessionSQL)
+        throws SQLException {
+        if ( sessionSQL.length == 0 ) return;
+        final Statement statement = connection.createStatement();
+        try {
+            for ( final String sql : sessionSQL ) statement.execute(sql);
+        }
+        finally { close(statement); }
+    }
+
     @JRubyMethod(name = "execute_insert", required = 1)
     public IRubyObject execute_insert(final ThreadContext context, final IRubyObject sql)
         throws SQLException {
@@ -705,15 +930,18 @@ public class RubyJdbcConnection extends RubyObject {
         return withConnection(context, new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
                 Statement statement = null;
+                markWrite();
                 try {
                     statement = createStatement(context, connection);
                     if ( returnGeneratedKeys ) {
                         statement.executeUpdate(query, Statement.RETURN_GENERATED_KEYS);
+                        if ( isDDL(query) ) schemaChanged(context, connection);
                         IRubyObject keys = mapGeneratedKeys(context.getRuntime(), connection, statement);
                         return keys == null ? context.getRuntime().getNil() : keys;
                     }
                     else {
                         final int rowCount = statement.executeUpdate(query);
+                        if ( isDDL(query) ) schemaChanged(context, connection);
                         return context.getRuntime().newFixnum(rowCount);
                     }
                 }
@@ -731,26 +959,28 @@ public class RubyJdbcConnection extends RubyObject {
         return withConnection(context, new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
                 PreparedStatement statement = null;
+                markWrite();
                 try {
+                    statement = prepareStatement(context, connection, query, returnGeneratedKeys);
+                    setStatementParameters(context, connection, statement, binds);
                     if ( returnGeneratedKeys ) {
-                        statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
-                        setStatementParameters(context, connection, statement, binds);
                         statement.executeUpdate();
+                        if ( isDDL(query) ) schemaChanged(context, connection);
                         IRubyObject keys = mapGeneratedKeys(context.getRuntime(), connection, statement);
                         return keys == null ? context.getRuntime().getNil() : keys;
                     }
                     else {
-                        statement = connection.prepareStatement(query);
-                        setStatementParameters(context, connection, statement, binds);
                         final int rowCount = statement.executeUpdate();
+                        if ( isDDL(query) ) schemaChanged(context, connection);
                         return context.getRuntime().newFixnum(rowCount);
                     }
                 }
                 catch (final SQLException e) {
                     debugErrorSQL(context, query);
+                    close(statement); statement = null;
                     throw e;
                 }
-                finally { close(statement); }
+                finally { releaseStatement(context, connection, query, returnGeneratedKeys, statement); }
             }
         });
     }
@@ -798,11 +1028,12 @@ public class RubyJdbcConnection extends RubyObject {
 
     private IRubyObject doExecuteQueryRaw(final ThreadContext context,
         final String query, final int maxRows, final Block block, final RubyArray binds) {
-        return withConnection(context, new Callable<IRubyObject>() {
+        return withReadConnection(context, query, new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
                 final Ruby runtime = context.getRuntime();
 
-                Statement statement = null;
+                Statement statement = null; PreparedStatement prepStatement = null;
+                ResultSet resultSet = null;
                 boolean hasResult = false;
                 try {
                     if ( binds == null || binds.isEmpty()) { // plain statement
@@ -811,33 +1042,36 @@ public class RubyJdbcConnection extends RubyObject {
                         hasResult = statement.execute(query);
                     }
                     else {
-                        final PreparedStatement prepStatement;
-                        statement = prepStatement = connection.prepareStatement(query);
+                        statement = prepStatement = prepareStatement(context, connection, query, false);
                         statement.setMaxRows(maxRows); // zero means there is no limit
                         setStatementParameters(context, connection, prepStatement, binds);
                         hasResult = prepStatement.execute();
                     }
+                    if (hasResult) resultSet = statement.getResultSet();
 
                     if (block.isGiven()) {
                         if (hasResult) {
                             // yield(id1, name1) ... row 1 result data
                             // yield(id2, name2) ... row 2 result data
-                            return yieldResultRows(context, runtime, connection, statement.getResultSet(), block);
+                            return yieldResultRows(context, runtime, connection, resultSet, block);
                         } else {
                             return runtime.getNil();
                         }
                     } else if (hasResult) {
-                        return mapToRawResult(context, runtime, connection, statement.getResultSet(), false);
+                        return mapToRawResult(context, runtime, connection, resultSet, false);
                     } else {
                         return runtime.newEmptyArray();
                     }
                 }
                 catch (final SQLException e) {
                     debugErrorSQL(context, query);
+                    close(prepStatement); prepStatement = null;
                     throw e;
                 }
                 finally {
-                    close(statement);
+                    close(resultSet);
+                    if ( prepStatement != null ) releaseStatement(context, connection, query, false, prepStatement);
+                    else close(statement);
                 }
             }
         });
@@ -916,7 +1150,7 @@ public class RubyJdbcConnection extends RubyObject {
      *
      */
     protected IRubyObject executeQuery(final ThreadContext context, final String query, final int maxRows) {
-        return withConnection(context, new Callable<IRubyObject>() {
+        return withReadConnection(context, query, new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
                 Statement statement = null;
                 ResultSet resultSet = null;
@@ -925,7 +1159,7 @@ public class RubyJdbcConnection extends RubyObject {
                     statement = createStatement(context, connection);
                     statement.setMaxRows(maxRows); // zero means there is no limit
                     resultSet = statement.executeQuery(query);
-                    return mapQueryResult(context, connection, resultSet);
+                    return mapQueryResult(context, connection, resultSet, query);
                 } catch (final SQLException e) {
                     debugErrorSQL(context, query);
                     throw e;
@@ -941,33 +1175,33 @@ public class RubyJdbcConnection extends RubyObject {
     @JRubyMethod(required = 3)
     public IRubyObject execute_prepared(final ThreadContext context, final IRubyObject sql,
         final IRubyObject binds, final IRubyObject cachedStatement) {
-        return withConnection(context, new Callable<IRubyObject>() {
+        final boolean cached = !(cachedStatement == null || cachedStatement.isNil());
+        final boolean select = isSelect(sql.convertToString());
+        final String query = sql.convertToString().getUnicodeValue();
+        final Callable<IRubyObject> execute = new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
-                final boolean cached = !(cachedStatement == null || cachedStatement.isNil());
-                final String query = sql.convertToString().getUnicodeValue();
                 PreparedStatement statement = null;
+                if ( ! select ) markWrite();
 
                 try {
                     if (cached) {
                         statement = (PreparedStatement) JavaEmbedUtils.rubyToJava(cachedStatement);
                     } else {
-                        statement = connection.prepareStatement(query);
+                        statement = prepareStatement(context, connection, query, false);
                     }
 
                     setStatementParameters(context, connection, statement, (RubyArray) binds);
                     boolean hasResultSet = statement.execute();
+                    if ( ! select && isDDL(query) ) schemaChanged(context, connection);
 
                     if (hasResultSet) {
                         ResultSet resultSet = statement.getResultSet();
-                        ColumnData[] columns = extractColumns(context.runtime, connection, resultSet, false);
+                        ColumnData[] columns = extractColumns(context.runtime, connection, resultSet, query);
 
                         IRubyObject results = mapToResult(context, context.runtime, connection, resultSet, columns);
 
-                        if (cached) {
-                            // Make sure we free the result set if we are caching the statement
-                            // It gets closed automatically when the statement is closed if we aren't caching
-                            resultSet.close();
-                        }
+                        // Make sure we free the result set as the statement might get cached
+                        resultSet.close();
 
                         return results;
                     } else {
@@ -975,174 +1209,699 @@ public class RubyJdbcConnection extends RubyObject {
                     }
                 } catch (final SQLException e) {
                     debugErrorSQL(context, query);
+                    if ( ! cached ) { close(statement); statement = null; }
                     throw e;
                 } finally {
                     if ( cached ) {
                         statement.clearParameters();
                     } else {
-                        close(statement);
+                        releaseStatement(context, connection, query, false, statement);
                     }
                 }
             }
-        });
+        };
+        // a cached statement belongs to the primary connection
+        return select && ! cached ? withReadConnection(context, query, execute) : withConnection(context, execute);
     }
 
     protected IRubyObject executePreparedQuery(final ThreadContext context, final String query,
         final RubyArray binds, final int maxRows) {
-        return withConnection(context, new Callable<IRubyObject>() {
+        return withReadConnection(context, query, new Callable<IRubyObject>() {
             public IRubyObject call(final Connection connection) throws SQLException {
                 PreparedStatement statement = null; ResultSet resultSet = null;
                 try {
-                    statement = connection.prepareStatement(query);
+                    statement = prepareStatement(context, connection, query, false);
                     statement.setMaxRows(maxRows); // zero means there is no limit
                     setStatementParameters(context, connection, statement, binds);
                     resultSet = statement.executeQuery();
-                    return mapQueryResult(context, connection, resultSet);
+                    return mapQueryResult(context, connection, resultSet, query);
                 }
                 catch (final SQLException e) {
                     debugErrorSQL(context, query);
+                    close(statement); statement = null;
                     throw e;
                 }
-                finally { close(resultSet); close(statement); }
+                finally { close(resultSet); releaseStatement(context, connection, query, false, statement); }
             }
         });
     }
 
     private IRubyObject mapQueryResult(final ThreadContext context,
-        final Connection connection, final ResultSet resultSet) throws SQLException {
+        final Connection connection, final ResultSet resultSet, final String query) throws SQLException {
         final Ruby runtime = context.getRuntime();
-        final ColumnData[] columns = extractColumns(runtime, connection, resultSet, false);
+        final ColumnData[] columns = extractColumns(runtime, connection, resultSet, query);
         return mapToResult(context, runtime, connection, resultSet, columns);
     }
 
     /**
-     * @deprecated please do not use this method
+     * Executes a query asynchronously (in the background) using a dedicated
+     * connection from the connection factory. Arguments: (sql), (sql, binds).
+     * The connection is opened and configured (the session SQL executed on this
+     * connection gets replayed) on an executor thread, the result is mapped
+     * (into an AR result) once <code>value</code> gets called on the returned
+     * object. Results neither retrieved nor cancelled are released on disconnect.
+     *
+     * @param context which context this method is executing on.
+     * @param args arguments being supplied to this method.
+     * @return a future-like <code>JdbcConnection::AsyncResult</code>
      */
-    @Deprecated // only used by Oracle adapter - also it's really a bad idea
-    @JRubyMethod(name = "execute_id_insert", required = 2)
-    public IRubyObject execute_id_insert(final ThreadContext context,
-        final IRubyObject sql, final IRubyObject id) throws SQLException {
-        final Ruby runtime = context.getRuntime();
+    @JRubyMethod(name = "execute_query_async", required = 1, optional = 1)
+    public IRubyObject execute_query_async(final ThreadContext context, final IRubyObject[] args) {
+        final String query = args[0].convertToString().getUnicodeValue(); // sql
+        final RubyArray binds = args.length > 1 && ! args[1].isNil() ?
+            (RubyArray) TypeConverter.checkArrayType(args[1]) : null;
+        return executeQueryAsync(context, query, binds);
+    }
 
-        callMethod("warn", RubyString.newUnicodeString(runtime, "DEPRECATED: execute_id_insert(sql, id) will be removed"));
+    @JRubyMethod(name = "execute_prepared_async", required = 2)
+    public IRubyObject execute_prepared_async(final ThreadContext context,
+        final IRubyObject sql, final IRubyObject binds) {
+        final String query = sql.convertToString().getUnicodeValue();
+        return executeQueryAsync(context, query, (RubyArray) TypeConverter.checkArrayType(binds));
+    }
 
-        return withConnection(context, new Callable<IRubyObject>() {
-            public IRubyObject call(final Connection connection) throws SQLException {
-                PreparedStatement statement = null;
-                final String insertSQL = sql.convertToString().getUnicodeValue();
-                try {
-                    statement = connection.prepareStatement(insertSQL);
-                    statement.setLong(1, RubyNumeric.fix2long(id));
-                    statement.executeUpdate();
-                }
-                catch (final SQLException e) {
-                    debugErrorSQL(context, insertSQL);
-                    throw e;
-                }
-                finally { close(statement); }
-                return id;
-            }
-        });
+    protected IRubyObject executeQueryAsync(final ThreadContext context,
+        final String query, final RubyArray binds) {
+        final RubyClass klass = getJdbcConnectionClass(context.runtime).getClass("AsyncResult");
+        final AsyncResult result = new AsyncResult(context.runtime, klass, this, query, binds, sessionSQL);
+        synchronized (asyncResults) { asyncResults.put(result, Boolean.TRUE); }
+        result.start(getAsyncExecutor());
+        return result;
     }
 
-    @JRubyMethod(name = "supported_data_types")
-    public IRubyObject supported_data_types(final ThreadContext context) throws SQLException {
-        final Ruby runtime = context.getRuntime();
-        final Connection connection = getConnection(context, true);
-        final ResultSet typeDesc = connection.getMetaData().getTypeInfo();
-        final IRubyObject types;
-        try {
-            types = mapToRawResult(context, runtime, connection, typeDesc, true);
-        }
-        finally { close(typeDesc); }
+    // outstanding (not yet released) async results :
+    private final Map<AsyncResult, Boolean> asyncResults = new IdentityHashMap<AsyncResult, Boolean>(8);
 
-        return types;
+    private void releaseAsyncResults() {
+        final AsyncResult[] results;
+        synchronized (asyncResults) {
+            if ( asyncResults.isEmpty() ) return;
+            results = asyncResults.keySet().toArray(new AsyncResult[asyncResults.size()]);
+        }
+        for ( final AsyncResult result : results ) result.cancel();
     }
 
-    @JRubyMethod(name = "primary_keys", required = 1)
-    public IRubyObject primary_keys(ThreadContext context, IRubyObject tableName) throws SQLException {
-        @SuppressWarnings("unchecked")
-        List<IRubyObject> primaryKeys = (List) primaryKeys(context, tableName.toString());
-        return context.getRuntime().newArray(primaryKeys);
+    private static final int asyncPoolSize = Integer.getInteger("arjdbc.async.pool_size", 4);
+    private static final int asyncQueueSize = Integer.getInteger("arjdbc.async.queue_size", 64);
+
+    private static ExecutorService asyncExecutor;
+
+    /**
+     * @return a bounded executor (thread count and queue), when saturated the
+     * query gets executed by the calling thread (thus no longer asynchronous)
+     */
+    private static synchronized ExecutorService getAsyncExecutor() {
+        if ( asyncExecutor == null ) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                asyncPoolSize, asyncPoolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(asyncQueueSize),
+                new ThreadFactory() {
+                    public Thread newThread(final Runnable task) {
+                        final Thread thread = new Thread(task, "arjdbc-async-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy()
+            );
+            executor.allowCoreThreadTimeOut(true);
+            asyncExecutor = executor;
+        }
+        return asyncExecutor;
     }
 
-    protected static final int PRIMARY_KEYS_COLUMN_NAME = 4;
+    /**
+     * The (future) result of an asynchronously executed query.
+     * @see RubyJdbcConnection#execute_query_async(ThreadContext, IRubyObject[])
+     */
+    @SuppressWarnings("serial")
+    public static class AsyncResult extends RubyObject {
+
+        private final RubyJdbcConnection jdbcConnection;
+        private final String query;
+        private final RubyArray binds; // null - plain statement
+        private final String[] sessionSQL;
+        private Future<ResultSet> future;
+
+        // guarded by this :
+        private Connection connection;
+        private Statement statement;
+        private IRubyObject value;
+        private boolean released;
+
+        AsyncResult(final Ruby runtime, final RubyClass metaClass,
+            final RubyJdbcConnection jdbcConnection,
+            final String query, final RubyArray binds, final String[] sessionSQL) {
+            super(runtime, metaClass);
+            this.jdbcConnection = jdbcConnection;
+            this.query = query; this.binds = binds;
+            this.sessionSQL = sessionSQL;
+        }
+
+        final void start(final ExecutorService executor) {
+            future = executor.submit(new java.util.concurrent.Callable<ResultSet>() {
+                public ResultSet call() throws SQLException { return execute(); }
+            });
+        }
 
-    @Deprecated // NOTE: this should go private
-    protected List<RubyString> primaryKeys(final ThreadContext context, final String tableName) {
-        return withConnection(context, new Callable<List<RubyString>>() {
-            public List<RubyString> call(final Connection connection) throws SQLException {
-                final String _tableName = caseConvertIdentifierForJdbc(connection, tableName);
-                final TableName table = extractTableName(connection, null, null, _tableName);
-                return primaryKeys(context, connection, table);
+        // NOTE: runs on an executor thread (or the caller's if the executor is saturated)
+        private ResultSet execute() throws SQLException {
+            final Connection connection = jdbcConnection.newConnection(); // dedicated
+            synchronized (this) {
+                if ( released ) { close(connection); throw new CancellationException(); }
+                this.connection = connection;
             }
-        });
-    }
+            jdbcConnection.configureConnection(connection, sessionSQL);
 
-    protected List<RubyString> primaryKeys(final ThreadContext context,
-        final Connection connection, final TableName table) throws SQLException {
-        final DatabaseMetaData metaData = connection.getMetaData();
-        ResultSet resultSet = null;
-        final List<RubyString> keyNames = new ArrayList<RubyString>();
-        try {
-            resultSet = metaData.getPrimaryKeys(table.catalog, table.schema, table.name);
-            final Ruby runtime = context.getRuntime();
-            while ( resultSet.next() ) {
-                String columnName = resultSet.getString(PRIMARY_KEYS_COLUMN_NAME);
-                columnName = caseConvertIdentifierForRails(connection, columnName);
-                keyNames.add( RubyString.newUnicodeString(runtime, columnName) );
+            final ThreadContext context = getRuntime().getCurrentContext();
+            final Statement statement;
+            if ( binds == null ) {
+                statement = jdbcConnection.createStatement(context, connection);
             }
+            else {
+                final PreparedStatement prepStatement = connection.prepareStatement(query);
+                statement = prepStatement;
+                try {
+                    jdbcConnection.setStatementParameters(context, connection, prepStatement, binds);
+                }
+                catch (RuntimeException e) { close(prepStatement); throw e; }
+            }
+            synchronized (this) {
+                if ( released ) { close(statement); throw new CancellationException(); }
+                this.statement = statement;
+            }
+            if ( binds == null ) return statement.executeQuery(query);
+            return ((PreparedStatement) statement).executeQuery();
         }
-        finally { close(resultSet); }
-        return keyNames;
-    }
 
-    @Deprecated //@JRubyMethod(name = "tables")
-    public IRubyObject tables(ThreadContext context) {
-        return tables(context, null, null, null, TABLE_TYPE);
-    }
+        /**
+         * Waits for the query to complete and maps its result.
+         * @return an <code>ActiveRecord::Result</code>
+         */
+        @JRubyMethod(name = "value")
+        public IRubyObject value(final ThreadContext context) {
+            synchronized (this) {
+                if ( value != null ) return value;
+                if ( released ) throw newCancelledError(context);
+            }
+            final ResultSet resultSet;
+            try {
+                resultSet = future.get(); // NOTE: not holding the lock while waiting
+            }
+            catch (CancellationException e) {
+                release(); throw newCancelledError(context);
+            }
+            catch (ExecutionException e) {
+                release();
+                if ( e.getCause() instanceof CancellationException ) throw newCancelledError(context);
+                debugErrorSQL(context, query);
+                return jdbcConnection.handleException(context, e.getCause());
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return jdbcConnection.handleException(context, e);
+            }
 
-    @Deprecated //@JRubyMethod(name = "tables")
-    public IRubyObject tables(ThreadContext context, IRubyObject catalog) {
-        return tables(context, toStringOrNull(catalog), null, null, TABLE_TYPE);
-    }
+            synchronized (this) {
+                if ( value != null ) return value; // mapped by a concurrent value call
+                if ( released ) throw newCancelledError(context);
+                try {
+                    return value = jdbcConnection.mapQueryResult(context, connection, resultSet, query);
+                }
+                catch (SQLException e) {
+                    debugErrorSQL(context, query);
+                    return jdbcConnection.handleException(context, e);
+                }
+                finally {
+                    close(resultSet); release();
+                }
+            }
+        }
 
-    @Deprecated //@JRubyMethod(name = "tables")
-    public IRubyObject tables(ThreadContext context, IRubyObject catalog, IRubyObject schemaPattern) {
-        return tables(context, toStringOrNull(catalog), toStringOrNull(schemaPattern), null, TABLE_TYPE);
-    }
+        @JRubyMethod(name = "complete?")
+        public IRubyObject complete_p(final ThreadContext context) {
+            return context.runtime.newBoolean( future.isDone() );
+        }
 
-    @Deprecated //@JRubyMethod(name = "tables")
-    public IRubyObject tables(ThreadContext context, IRubyObject catalog, IRubyObject schemaPattern, IRubyObject tablePattern) {
-        return tables(context, toStringOrNull(catalog), toStringOrNull(schemaPattern), toStringOrNull(tablePattern), TABLE_TYPE);
-    }
+        /**
+         * Cancels the query (if still running) and releases the connection.
+         * @return true if cancelled (false if already completed)
+         */
+        @JRubyMethod(name = "cancel")
+        public IRubyObject cancel(final ThreadContext context) {
+            return context.runtime.newBoolean( cancel() );
+        }
 
-    @JRubyMethod(name = "tables", required = 0, optional = 4)
-    public IRubyObject tables(final ThreadContext context, final IRubyObject[] args) {
-        switch ( args.length ) {
-            case 0: // ()
-                return tables(context, null, null, null, TABLE_TYPE);
-            case 1: // (catalog)
-                return tables(context, toStringOrNull(args[0]), null, null, TABLE_TYPE);
-            case 2: // (catalog, schemaPattern)
-                return tables(context, toStringOrNull(args[0]), toStringOrNull(args[1]), null, TABLE_TYPE);
-            case 3: // (catalog, schemaPattern, tablePattern)
-                return tables(context, toStringOrNull(args[0]), toStringOrNull(args[1]), toStringOrNull(args[2]), TABLE_TYPE);
+        final boolean cancel() {
+            final Statement statement;
+            synchronized (this) {
+                if ( released || value != null ) return false;
+                statement = this.statement;
+            }
+            if ( ! future.cancel(false) && statement != null ) { // already running or done
+                try { statement.cancel(); }
+                catch (SQLException e) { /* NOOP */ }
+            }
+            return release();
         }
-        return tables(context, toStringOrNull(args[0]), toStringOrNull(args[1]), toStringOrNull(args[2]), getTypes(args[3]));
-    }
 
-    protected IRubyObject tables(final ThreadContext context,
-        final String catalog, final String schemaPattern, final String tablePattern, final String[] types) {
-        return withConnection(context, new Callable<IRubyObject>() {
-            public IRubyObject call(final Connection connection) throws SQLException {
-                return matchTables(context.getRuntime(), connection, catalog, schemaPattern, tablePattern, types, false);
+        private synchronized boolean release() {
+            if ( released ) return false;
+            released = true;
+            close(statement); statement = null; // closes the result set
+            close(connection); connection = null;
+            synchronized (jdbcConnection.asyncResults) {
+                jdbcConnection.asyncResults.remove(this);
             }
-        });
-    }
+            return true;
+        }
+
+        private RaiseException newCancelledError(final ThreadContext context) {
+            return context.runtime.newRaiseException(getJDBCError(context.runtime), "async query cancelled: " + query);
+        }
 
-    protected String[] getTableTypes() {
-        return TABLE_TYPES;
+    }
+
+    protected static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /**
+     * Executes a query and yields the (AR) result in batches, instead of
+     * mapping the whole result set into a single <code>ActiveRecord::Result</code>.
+     * Arguments: (sql), (sql, binds), (sql, binds, options) where options might
+     * contain <code>:batch_size</code> and <code>:fetch_size</code> (defaults
+     * to the batch size), the later one is passed down to the JDBC driver.
+     *
+     * @param context which context this method is executing on.
+     * @param args arguments being supplied to this method.
+     * @param block yields an <code>ActiveRecord::Result</code> for every batch
+     * @return number of rows yielded
+     */
+    @JRubyMethod(name = "execute_query_each_batch", required = 1, optional = 2)
+    public IRubyObject execute_query_each_batch(final ThreadContext context,
+        final IRubyObject[] args, final Block block) {
+        if ( ! block.isGiven() ) throw context.runtime.newLocalJumpErrorNoBlock();
+
+        final String query = args[0].convertToString().getUnicodeValue(); // sql
+        final RubyArray binds = args.length > 1 && ! args[1].isNil() ?
+            (RubyArray) TypeConverter.checkArrayType(args[1]) : null;
+
+        int batchSize = DEFAULT_BATCH_SIZE; int fetchSize = 0;
+        if ( args.length > 2 && ! args[2].isNil() ) { // options
+            final RubyHash options = args[2].convertToHash();
+            IRubyObject value = options.fastARef(context.runtime.newSymbol("batch_size"));
+            if ( value != null && ! value.isNil() ) batchSize = RubyNumeric.fix2int(value);
+            value = options.fastARef(context.runtime.newSymbol("fetch_size"));
+            if ( value != null && ! value.isNil() ) fetchSize = RubyNumeric.fix2int(value);
+        }
+        if ( batchSize <= 0 ) {
+            throw context.runtime.newArgumentError("invalid batch_size: " + batchSize);
+        }
+        if ( fetchSize <= 0 ) fetchSize = batchSize;
+
+        return executeQueryEachBatch(context, query, binds, batchSize, fetchSize, block);
+    }
+
+    protected IRubyObject executeQueryEachBatch(final ThreadContext context, final String query,
+        final RubyArray binds, final int batchSize, final int fetchSize, final Block block) {
+        return withConnection(context, new YieldingCallable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                Statement statement = null; ResultSet resultSet = null;
+                final boolean cursorTransaction = isFetchSizeTransactional() && isAutoCommit(connection);
+                boolean success = false;
+                try {
+                    // the driver might only use a cursor (respect fetch size) inside a transaction
+                    if ( cursorTransaction ) setAutoCommit(connection, false);
+
+                    if ( binds == null || binds.isEmpty() ) { // plain statement
+                        statement = createStatement(context, connection);
+                        statement.setFetchSize(fetchSize);
+                        resultSet = statement.executeQuery(query);
+                    }
+                    else {
+                        final PreparedStatement prepStatement;
+                        statement = prepStatement = connection.prepareStatement(query);
+                        statement.setFetchSize(fetchSize);
+                        setStatementParameters(context, connection, prepStatement, binds);
+                        resultSet = prepStatement.executeQuery();
+                    }
+                    final IRubyObject count = yieldResultBatches(context, connection, resultSet, query, batchSize, block, this);
+                    success = true;
+                    return count;
+                }
+                catch (final SQLException e) {
+                    debugErrorSQL(context, query);
+                    throw e;
+                }
+                finally {
+                    close(resultSet); close(statement);
+                    if ( cursorTransaction ) {
+                        // NOTE: switching auto-commit back on commits the (read) transaction
+                        if ( ! success ) {
+                            try { connection.rollback(); }
+                            catch (SQLException e) { debugMessage(context, "rollback failed: " + e); }
+                        }
+                        setAutoCommit(connection, true);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * A block which should not be retried (on a broken connection) once it
+     * yielded (results) to the caller.
+     */
+    private static abstract class YieldingCallable<T> implements Callable<T> {
+
+        boolean yielded;
+
+    }
+
+    /**
+     * Whether a fetch size is only honored by the driver when auto-commit is off
+     * (e.g. PostgreSQL uses cursor based fetching only within a transaction).
+     * @return false by default
+     */
+    protected boolean isFetchSizeTransactional() {
+        return false;
+    }
+
+    private IRubyObject yieldResultBatches(final ThreadContext context,
+        final Connection connection, final ResultSet resultSet, final String query,
+        final int batchSize, final Block block, final YieldingCallable<?> callable)
+        throws SQLException {
+        final Ruby runtime = context.runtime;
+        final ColumnData[] columns = extractColumns(runtime, connection, resultSet, query);
+        final int initialSize = Math.min(batchSize, DEFAULT_BATCH_SIZE);
+
+        long count = 0;
+        RubyArray rows = RubyArray.newArray(runtime, initialSize);
+        while ( resultSet.next() ) {
+            rows.append( mapRow(context, runtime, columns, resultSet, this) );
+            if ( rows.size() == batchSize ) {
+                callable.yielded = true;
+                block.yield(context, newResult(context, columns, rows));
+                count += batchSize;
+                rows = RubyArray.newArray(runtime, initialSize);
+            }
+        }
+        if ( ! rows.isEmpty() ) {
+            callable.yielded = true;
+            block.yield(context, newResult(context, columns, rows));
+            count += rows.size();
+        }
+        return runtime.newFixnum(count);
+    }
+
+    /**
+     * Executes a (prepared) statement for every binds (array) of the given list
+     * using JDBC batching, thus less round-trips than executing row by row.
+     * Arguments: (sql, binds_list), (sql, binds_list, options) where options
+     * might contain <code>:batch_size</code> (number of rows sent at once) and
+     * <code>:generated_keys</code> (whether to return generated keys).
+     *
+     * @param context which context this method is executing on.
+     * @param args arguments being supplied to this method.
+     * @return update counts (nil when unknown) for each row or generated keys
+     */
+    @JRubyMethod(name = "execute_batch", required = 2, optional = 1)
+    public IRubyObject execute_batch(final ThreadContext context, final IRubyObject[] args) {
+        final String query = args[0].convertToString().getUnicodeValue(); // sql
+        final RubyArray bindsList = (RubyArray) TypeConverter.convertToType(args[1], context.runtime.getArray(), "to_ary");
+
+        int batchSize = DEFAULT_BATCH_SIZE; boolean generatedKeys = false;
+        if ( args.length > 2 && ! args[2].isNil() ) { // options
+            final RubyHash options = args[2].convertToHash();
+            IRubyObject value = options.fastARef(context.runtime.newSymbol("batch_size"));
+            if ( value != null && ! value.isNil() ) batchSize = RubyNumeric.fix2int(value);
+            value = options.fastARef(context.runtime.newSymbol("generated_keys"));
+            generatedKeys = value != null && value.isTrue();
+        }
+        if ( batchSize <= 0 ) {
+            throw context.runtime.newArgumentError("invalid batch_size: " + batchSize);
+        }
+
+        return executeBatch(context, query, bindsList, batchSize, generatedKeys);
+    }
+
+    protected IRubyObject executeBatch(final ThreadContext context, final String query,
+        final RubyArray bindsList, final int batchSize, final boolean generatedKeys) {
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                final Ruby runtime = context.runtime;
+                final int size = bindsList.size();
+                final RubyArray result = RubyArray.newArray(runtime, size);
+                if ( size == 0 ) return result;
+
+                PreparedStatement statement = null;
+                markWrite();
+                try {
+                    statement = prepareStatement(context, connection, query, generatedKeys);
+                    int batched = 0;
+                    for ( int i = 0; i < size; i++ ) {
+                        final RubyArray binds = (RubyArray) TypeConverter.checkArrayType(bindsList.eltInternal(i));
+                        setStatementParameters(context, connection, statement, binds);
+                        statement.addBatch();
+                        if ( ++batched == batchSize || i == size - 1 ) {
+                            final int[] counts = statement.executeBatch(); batched = 0;
+                            if ( generatedKeys ) {
+                                final IRubyObject keys = mapGeneratedKeys(runtime, connection, statement, false);
+                                if ( keys instanceof RubyArray ) result.concat(keys);
+                            }
+                            else {
+                                for ( final int count : counts ) {
+                                    result.append( count < 0 ? runtime.getNil() : runtime.newFixnum(count) );
+                                }
+                            }
+                        }
+                    }
+                    if ( isDDL(query) ) schemaChanged(context, connection);
+                    return result;
+                }
+                catch (final SQLException e) {
+                    debugErrorSQL(context, query);
+                    close(statement); statement = null;
+                    throw e;
+                }
+                finally {
+                    if ( statement != null ) { // might have failed (non-SQL) half-way
+                        try { statement.clearBatch(); }
+                        catch (SQLException e) { close(statement); statement = null; }
+                    }
+                    releaseStatement(context, connection, query, generatedKeys, statement);
+                }
+            }
+        });
+    }
+
+    /**
+     * Executes multiple (non-query) SQL statements using a single JDBC batch,
+     * if supported by the driver, otherwise statements are executed one by one.
+     * On failure the raised error (message) includes the failed statement index.
+     *
+     * @param context which context this method is executing on.
+     * @param sqls array of SQL (DDL/DML) statements
+     * @return update counts (nil when unknown) for each statement
+     */
+    @JRubyMethod(name = "execute_many", required = 1)
+    public IRubyObject execute_many(final ThreadContext context, final IRubyObject sqls) {
+        final RubyArray sqlArray = (RubyArray) TypeConverter.convertToType(sqls, context.runtime.getArray(), "to_ary");
+        final String[] queries = new String[ sqlArray.size() ];
+        for ( int i = 0; i < queries.length; i++ ) {
+            queries[i] = sqlArray.eltInternal(i).convertToString().getUnicodeValue();
+        }
+        return executeMany(context, queries);
+    }
+
+    protected IRubyObject executeMany(final ThreadContext context, final String[] queries) {
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                final Ruby runtime = context.runtime;
+                final RubyArray result = RubyArray.newArray(runtime, queries.length);
+                if ( queries.length == 0 ) return result;
+
+                markWrite();
+
+                Statement statement = null; int index = 0;
+                try {
+                    statement = createStatement(context, connection);
+                    if ( connection.getMetaData().supportsBatchUpdates() ) {
+                        for ( final String query : queries ) statement.addBatch(query);
+                        final int[] counts = statement.executeBatch();
+                        for ( final int count : counts ) {
+                            result.append( count < 0 ? runtime.getNil() : runtime.newFixnum(count) );
+                        }
+                    }
+                    else {
+                        for ( index = 0; index < queries.length; index++ ) {
+                            statement.execute(queries[index]);
+                            final int count = statement.getUpdateCount();
+                            result.append( count < 0 ? runtime.getNil() : runtime.newFixnum(count) );
+                        }
+                    }
+                    for ( final String query : queries ) {
+                        if ( isDDL(query) ) { schemaChanged(context, connection); break; }
+                    }
+                    return result;
+                }
+                catch (final BatchUpdateException e) {
+                    final int[] done = e.getUpdateCounts();
+                    index = done == null ? 0 : done.length; // driver stopped on failure
+                    if ( done != null ) {
+                        for ( int i = 0; i < done.length; i++ ) {
+                            if ( done[i] == Statement.EXECUTE_FAILED ) { index = i; break; }
+                        }
+                    }
+                    final String query = index < queries.length ? queries[index] : null;
+                    if ( query != null ) debugErrorSQL(context, query);
+                    // (still) a batch error keeping the update counts :
+                    throw new BatchUpdateException(failedMessage(index, query, e),
+                        e.getSQLState(), e.getErrorCode(), done, e);
+                }
+                catch (final SQLException e) {
+                    final String query = index < queries.length ? queries[index] : null;
+                    if ( query != null ) debugErrorSQL(context, query);
+                    throw new SQLException(failedMessage(index, query, e), e.getSQLState(), e.getErrorCode(), e);
+                }
+                finally { close(statement); }
+            }
+        });
+    }
+
+    private static String failedMessage(final int index, final String query, final SQLException e) {
+        return "statement [" + index + "] failed: " + e.getMessage() + ( query == null ? "" : " (" + query + ")" );
+    }
+
+    /**
+     * @deprecated please do not use this method
+     */
+    @Deprecated // only used by Oracle adapter - also it's really a bad idea
+    @JRubyMethod(name = "execute_id_insert", required = 2)
+    public IRubyObject execute_id_insert(final ThreadContext context,
+        final IRubyObject sql, final IRubyObject id) throws SQLException {
+        final Ruby runtime = context.getRuntime();
+
+        callMethod("warn", RubyString.newUnicodeString(runtime, "DEPRECATED: execute_id_insert(sql, id) will be removed"));
+
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                PreparedStatement statement = null;
+                final String insertSQL = sql.convertToString().getUnicodeValue();
+                markWrite();
+                try {
+                    statement = connection.prepareStatement(insertSQL);
+                    statement.setLong(1, RubyNumeric.fix2long(id));
+                    statement.executeUpdate();
+                }
+                catch (final SQLException e) {
+                    debugErrorSQL(context, insertSQL);
+                    throw e;
+                }
+                finally { close(statement); }
+                return id;
+            }
+        });
+    }
+
+    @JRubyMethod(name = "supported_data_types")
+    public IRubyObject supported_data_types(final ThreadContext context) throws SQLException {
+        final Ruby runtime = context.getRuntime();
+        final Connection connection = getConnection(context, true);
+        final ResultSet typeDesc = connection.getMetaData().getTypeInfo();
+        final IRubyObject types;
+        try {
+            types = mapToRawResult(context, runtime, connection, typeDesc, true);
+        }
+        finally { close(typeDesc); }
+
+        return types;
+    }
+
+    @JRubyMethod(name = "primary_keys", required = 1)
+    public IRubyObject primary_keys(ThreadContext context, IRubyObject tableName) throws SQLException {
+        @SuppressWarnings("unchecked")
+        List<IRubyObject> primaryKeys = (List) primaryKeys(context, tableName.toString());
+        return context.getRuntime().newArray(primaryKeys);
+    }
+
+    protected static final int PRIMARY_KEYS_COLUMN_NAME = 4;
+
+    @Deprecated // NOTE: this should go private
+    protected List<RubyString> primaryKeys(final ThreadContext context, final String tableName) {
+        return withConnection(context, new Callable<List<RubyString>>() {
+            public List<RubyString> call(final Connection connection) throws SQLException {
+                final String _tableName = caseConvertIdentifierForJdbc(connection, tableName);
+                final TableName table = extractTableName(connection, null, null, _tableName);
+                return primaryKeys(context, connection, table);
+            }
+        });
+    }
+
+    protected List<RubyString> primaryKeys(final ThreadContext context,
+        final Connection connection, final TableName table) throws SQLException {
+        final DatabaseMetaData metaData = getMetaData(context, connection);
+        ResultSet resultSet = null;
+        final List<RubyString> keyNames = new ArrayList<RubyString>();
+        try {
+            resultSet = metaData.getPrimaryKeys(table.catalog, table.schema, table.name);
+            final Ruby runtime = context.getRuntime();
+            while ( resultSet.next() ) {
+                String columnName = resultSet.getString(PRIMARY_KEYS_COLUMN_NAME);
+                columnName = caseConvertIdentifierForRails(connection, columnName);
+                keyNames.add( RubyString.newUnicodeString(runtime, columnName) );
+            }
+        }
+        finally { close(resultSet); }
+        return keyNames;
+    }
+
+    @Deprecated //@JRubyMethod(name = "tables")
+    public IRubyObject tables(ThreadContext context) {
+        return tables(context, null, null, null, TABLE_TYPE);
+    }
+
+    @Deprecated //@JRubyMethod(name = "tables")
+    public IRubyObject tables(ThreadContext context, IRubyObject catalog) {
+        return tables(context, toStringOrNull(catalog), null, null, TABLE_TYPE);
+    }
+
+    @Deprecated //@JRubyMethod(name = "tables")
+    public IRubyObject tables(ThreadContext context, IRubyObject catalog, IRubyObject schemaPattern) {
+        return tables(context, toStringOrNull(catalog), toStringOrNull(schemaPattern), null, TABLE_TYPE);
+    }
+
+    @Deprecated //@JRubyMethod(name = "tables")
+    public IRubyObject tables(ThreadContext context, IRubyObject catalog, IRubyObject schemaPattern, IRubyObject tablePattern) {
+        return tables(context, toStringOrNull(catalog), toStringOrNull(schemaPattern), toStringOrNull(tablePattern), TABLE_TYPE);
+    }
+
+    @JRubyMethod(name = "tables", required = 0, optional = 4)
+    public IRubyObject tables(final ThreadContext context, final IRubyObject[] args) {
+        switch ( args.length ) {
+            case 0: // ()
+                return tables(context, null, null, null, TABLE_TYPE);
+            case 1: // (catalog)
+                return tables(context, toStringOrNull(args[0]), null, null, TABLE_TYPE);
+            case 2: // (catalog, schemaPattern)
+                return tables(context, toStringOrNull(args[0]), toStringOrNull(args[1]), null, TABLE_TYPE);
+            case 3: // (catalog, schemaPattern, tablePattern)
+                return tables(context, toStringOrNull(args[0]), toStringOrNull(args[1]), toStringOrNull(args[2]), TABLE_TYPE);
+        }
+        return tables(context, toStringOrNull(args[0]), toStringOrNull(args[1]), toStringOrNull(args[2]), getTypes(args[3]));
+    }
+
+    protected IRubyObject tables(final ThreadContext context,
+        final String catalog, final String schemaPattern, final String tablePattern, final String[] types) {
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                return matchTables(context.getRuntime(), connection, catalog, schemaPattern, tablePattern, types, false);
+            }
+        });
+    }
+
+    protected String[] getTableTypes() {
+        return TABLE_TYPES;
     }
 
     @JRubyMethod(name = "table_exists?")
@@ -1152,57 +1911,416 @@ public class RubyJdbcConnection extends RubyObject {
         }
         final String tableName = table.toString();
 
-        return tableExists(context, null, tableName);
-    }
+        return tableExists(context, null, tableName);
+    }
+
+    @JRubyMethod(name = "table_exists?")
+    public IRubyObject table_exists_p(final ThreadContext context, IRubyObject table, IRubyObject schema) {
+        if ( table.isNil() ) {
+            throw context.getRuntime().newArgumentError("nil table name");
+        }
+        final String tableName = table.toString();
+        final String defaultSchema = schema.isNil() ? null : schema.toString();
+
+        return tableExists(context, defaultSchema, tableName);
+    }
+
+    protected IRubyObject tableExists(final ThreadContext context,
+        final String defaultSchema, final String tableName) {
+        final Ruby runtime = context.getRuntime();
+        return withConnection(context, new Callable<RubyBoolean>() {
+            public RubyBoolean call(final Connection connection) throws SQLException {
+                final TableName components = extractTableName(connection, null, defaultSchema, tableName);
+                return runtime.newBoolean( tableExists(runtime, connection, components) );
+            }
+        });
+    }
+
+    @JRubyMethod(name = {"columns", "columns_internal"}, required = 1, optional = 2)
+    public IRubyObject columns_internal(final ThreadContext context, final IRubyObject[] args)
+        throws SQLException {
+        return withConnection(context, new Callable<RubyArray>() {
+            public RubyArray call(final Connection connection) throws SQLException {
+                ResultSet columns = null;
+                try {
+                    final String tableName = args[0].toString();
+                    // optionals (NOTE: catalog argumnet was never used before 1.3.0) :
+                    final String catalog = args.length > 1 ? toStringOrNull(args[1]) : null;
+                    final String defaultSchema = args.length > 2 ? toStringOrNull(args[2]) : null;
+
+                    final TableName components;
+                    components = extractTableName(connection, catalog, defaultSchema, tableName);
+
+                    if ( ! tableExists(context.getRuntime(), connection, components) ) {
+                        throw new SQLException("table: " + tableName + " does not exist");
+                    }
+
+                    final DatabaseMetaData metaData = getMetaData(context, connection);
+                    columns = metaData.getColumns(components.catalog, components.schema, components.name, null);
+                    return mapColumnsResult(context, metaData, components, columns);
+                }
+                finally {
+                    close(columns);
+                }
+            }
+        });
+    }
+
+    /**
+     * Introspects a whole schema using (a handful of) bulk meta-data lookups,
+     * columns and primary keys are fetched for all tables at once.
+     * <br/>
+     * Indexes and foreign keys are only included when requested, as these are
+     * looked up per table (costing at least one more meta-data call per table
+     * each) unless an adapter is able to introspect them in bulk.
+     *
+     * @param context
+     * @param args (schema = nil, options = { indexes: false, foreign_keys: false })
+     * @return { table_name => { columns: [], primary_keys: [], indexes: [], foreign_keys: [] } }
+     */
+    @JRubyMethod(name = "schema_snapshot", optional = 2)
+    public IRubyObject schema_snapshot(final ThreadContext context, final IRubyObject[] args) {
+        final String schemaName = args.length > 0 ? toStringOrNull(args[0]) : null;
+        final RubyHash options = args.length > 1 && ! args[1].isNil() ? (RubyHash) TypeConverter.checkHashType(context.runtime, args[1]) : null;
+        final boolean indexes = options != null && isTrue(context, options, "indexes", false);
+        final boolean foreignKeys = options != null && isTrue(context, options, "foreign_keys", false);
+        return withConnection(context, new Callable<RubyHash>() {
+            public RubyHash call(final Connection connection) throws SQLException {
+                return schemaSnapshot(context, connection, schemaName, indexes, foreignKeys);
+            }
+        });
+    }
+
+    private static boolean isTrue(final ThreadContext context, final RubyHash options, final String key, final boolean defaultValue) {
+        final IRubyObject value = options.fastARef(context.runtime.newSymbol(key));
+        return value == null ? defaultValue : value.isTrue();
+    }
+
+    protected RubyHash schemaSnapshot(final ThreadContext context, final Connection connection,
+        final String schemaName, final boolean withIndexes, final boolean withForeignKeys) throws SQLException {
+        final SchemaSnapshot snapshot = fetchSchemaSnapshot(context, connection, schemaName);
+        return mapSchemaSnapshot(context, connection, snapshot, schemaName, withIndexes, withForeignKeys);
+    }
+
+    /**
+     * Fetches the raw (detached) meta-data rows of all tables in a schema.
+     * @param context
+     * @param connection
+     * @param schemaName
+     * @return a snapshot (of tables, columns and primary keys)
+     * @throws SQLException
+     */
+    SchemaSnapshot fetchSchemaSnapshot(final ThreadContext context, final Connection connection,
+        final String schemaName) throws SQLException {
+        final DatabaseMetaData metaData = getMetaData(context, connection);
+
+        final String schema = caseConvertIdentifierForJdbc(connection, schemaName);
+        String catalog = null;
+        if ( schema != null && ! databaseSupportsSchemas() ) catalog = schema;
+        if ( catalog == null ) catalog = connection.getCatalog();
+
+        ResultSet resultSet = null;
+        final MetaDataCache.Rows tables;
+        try {
+            resultSet = metaData.getTables(catalog, schema, null, getTableTypes());
+            tables = new MetaDataCache.Rows(resultSet, 0);
+        }
+        finally { close(resultSet); resultSet = null; }
+
+        final MetaDataCache.Rows columns;
+        try {
+            resultSet = metaData.getColumns(catalog, schema, null, null);
+            columns = new MetaDataCache.Rows(resultSet, 0);
+        }
+        finally { close(resultSet); resultSet = null; }
+
+        MetaDataCache.Rows primaryKeys;
+        try { // NOTE: a null table name is not supported by all drivers
+            resultSet = metaData.getPrimaryKeys(catalog, schema, null);
+            primaryKeys = new MetaDataCache.Rows(resultSet, 0);
+            if ( primaryKeys.values.length == 0 ) primaryKeys = null; // try per table
+        }
+        catch (SQLException e) {
+            debugMessage(context, "bulk getPrimaryKeys failed (will lookup per table): " + e);
+            primaryKeys = null;
+        }
+        finally { close(resultSet); resultSet = null; }
+
+        if ( primaryKeys == null ) { // collect per table lookups into the same rows
+            String[] labels = new String[0];
+            final List<Object[]> keys = new ArrayList<Object[]>();
+            for ( final Object[] table : tables.values ) {
+                final Object tableCatalog = table[TABLES_TABLE_CAT - 1];
+                final Object tableSchema = table[TABLES_TABLE_SCHEM - 1];
+                try {
+                    resultSet = metaData.getPrimaryKeys(
+                        tableCatalog == null ? catalog : tableCatalog.toString(),
+                        tableSchema == null ? schema : tableSchema.toString(),
+                        (String) table[TABLES_TABLE_NAME - 1]
+                    );
+                    final MetaDataCache.Rows tableKeys = new MetaDataCache.Rows(resultSet, 0);
+                    labels = tableKeys.labels;
+                    for ( final Object[] key : tableKeys.values ) keys.add(key);
+                }
+                finally { close(resultSet); resultSet = null; }
+            }
+            primaryKeys = new MetaDataCache.Rows(labels, keys.toArray(new Object[keys.size()][]), 0);
+        }
+
+        return new SchemaSnapshot(catalog, schema, tables, columns, primaryKeys);
+    }
+
+    /**
+     * Maps (raw) snapshot rows the same way as {@link #columns} and
+     * {@link #primary_keys} would, indexes and foreign keys (when requested)
+     * are looked up per table.
+     */
+    RubyHash mapSchemaSnapshot(final ThreadContext context, final Connection connection,
+        final SchemaSnapshot snapshot, final String schemaName,
+        final boolean withIndexes, final boolean withForeignKeys) throws SQLException {
+        final Ruby runtime = context.runtime;
+        final DatabaseMetaData metaData = getMetaData(context, connection);
+
+        // TABLE_CAT (1), TABLE_SCHEM (2) and TABLE_NAME (3) as with getTables
+        final Map<List<String>, MetaDataCache.Rows> columns = snapshot.columns.groupBy(TABLE_KEY);
+        final Map<List<String>, MetaDataCache.Rows> primaryKeys = snapshot.primaryKeys.groupBy(TABLE_KEY);
+
+        final RubyHash result = RubyHash.newHash(runtime);
+        final RubySymbol COLUMNS = runtime.newSymbol("columns");
+        final RubySymbol PRIMARY_KEYS = runtime.newSymbol("primary_keys");
+        final RubySymbol INDEXES = runtime.newSymbol("indexes");
+        final RubySymbol FOREIGN_KEYS = runtime.newSymbol("foreign_keys");
+
+        for ( final Object[] table : snapshot.tables.values ) {
+            final String tableName = (String) table[TABLES_TABLE_NAME - 1];
+            final RubyString railsName = RubyString.newUnicodeString(runtime, getIdentifierCase(metaData).toRails(tableName));
+            if ( result.fastARef(railsName) != null ) continue; // same name in another schema
+
+            final Object tableCatalog = table[TABLES_TABLE_CAT - 1];
+            final Object tableSchema = table[TABLES_TABLE_SCHEM - 1];
+            final TableName components = new TableName(
+                tableCatalog == null ? snapshot.catalog : tableCatalog.toString(),
+                tableSchema == null ? snapshot.schema : tableSchema.toString(), tableName
+            );
+
+            final RubyHash entry = RubyHash.newHash(runtime);
+            final List<String> tableKey = MetaDataCache.Rows.keyOf(table, TABLE_KEY);
+
+            final MetaDataCache.Rows tableColumns = columns.get(tableKey);
+            if ( tableColumns == null ) {
+                entry.op_aset(context, COLUMNS, runtime.newEmptyArray());
+            }
+            else {
+                final ResultSet columnsSet = tableColumns.newResultSet();
+                try {
+                    entry.op_aset(context, COLUMNS, mapColumnsResult(context, metaData, components, columnsSet));
+                }
+                finally { close(columnsSet); }
+            }
+
+            final MetaDataCache.Rows tableKeys = primaryKeys.get(tableKey);
+            final RubyArray keys = runtime.newArray();
+            if ( tableKeys != null ) {
+                for ( final Object[] key : tableKeys.values ) {
+                    final String columnName = (String) key[PRIMARY_KEYS_COLUMN_NAME - 1];
+                    keys.append( RubyString.newUnicodeString(runtime, getIdentifierCase(metaData).toRails(columnName)) );
+                }
+            }
+            entry.op_aset(context, PRIMARY_KEYS, keys);
 
-    @JRubyMethod(name = "table_exists?")
-    public IRubyObject table_exists_p(final ThreadContext context, IRubyObject table, IRubyObject schema) {
-        if ( table.isNil() ) {
-            throw context.getRuntime().newArgumentError("nil table name");
+            if ( withIndexes ) {
+                entry.op_aset(context, INDEXES, indexes(context, railsName.toString(), null, schemaName));
+            }
+            if ( withForeignKeys ) {
+                entry.op_aset(context, FOREIGN_KEYS, foreignKeys(context, railsName.toString(), schemaName, null));
+            }
+
+            result.op_aset(context, railsName, entry);
         }
-        final String tableName = table.toString();
-        final String defaultSchema = schema.isNil() ? null : schema.toString();
+        return result;
+    }
 
-        return tableExists(context, defaultSchema, tableName);
+    /**
+     * Persists a schema snapshot (tables, columns and primary keys) into a
+     * binary file, along with the current schema fingerprint. Requires a
+     * <code>schema_fingerprint_sql</code> to be configured, otherwise there's
+     * no way of telling whether a persisted snapshot is stale.
+     *
+     * @param context
+     * @param args (path, schema = nil)
+     * @return the schema fingerprint
+     * @see #load_schema_snapshot(ThreadContext, IRubyObject[])
+     */
+    @JRubyMethod(name = "dump_schema_snapshot", required = 1, optional = 1)
+    public IRubyObject dump_schema_snapshot(final ThreadContext context, final IRubyObject[] args) {
+        final File file = new File(args[0].convertToString().toString());
+        final String schemaName = args.length > 1 ? toStringOrNull(args[1]) : null;
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                final String fingerprint = schemaFingerprint(context, connection);
+                if ( fingerprint == null ) {
+                    throw context.runtime.newRaiseException(getJDBCError(context.runtime),
+                        "can not dump a schema snapshot without a schema_fingerprint_sql configured");
+                }
+                writeSchemaSnapshot(file, fetchSchemaSnapshot(context, connection, schemaName), fingerprint);
+                return RubyString.newUnicodeString(context.runtime, fingerprint);
+            }
+        });
     }
 
-    protected IRubyObject tableExists(final ThreadContext context,
-        final String defaultSchema, final String tableName) {
-        final Ruby runtime = context.getRuntime();
-        return withConnection(context, new Callable<RubyBoolean>() {
-            public RubyBoolean call(final Connection connection) throws SQLException {
-                final TableName components = extractTableName(connection, null, defaultSchema, tableName);
-                return runtime.newBoolean( tableExists(runtime, connection, components) );
+    /**
+     * Loads a schema snapshot persisted using {@link #dump_schema_snapshot},
+     * the file is memory-mapped and no meta-data lookups are needed for the
+     * columns and primary keys. Indexes and foreign keys are not persisted.
+     *
+     * @param context
+     * @param args (path, schema = nil)
+     * @return { table_name => { columns: [], primary_keys: [] } } or nil if
+     * the file is missing, invalid, stale (schema fingerprint changed), of
+     * another schema or no <code>schema_fingerprint_sql</code> is configured
+     */
+    @JRubyMethod(name = "load_schema_snapshot", required = 1, optional = 1)
+    public IRubyObject load_schema_snapshot(final ThreadContext context, final IRubyObject[] args) {
+        final File file = new File(args[0].convertToString().toString());
+        final String schemaName = args.length > 1 ? toStringOrNull(args[1]) : null;
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                if ( ! file.isFile() ) return context.nil;
+                final String fingerprint = schemaFingerprint(context, connection);
+                if ( fingerprint == null ) {
+                    debugMessage(context, "schema snapshot: " + file + " not loaded (no schema_fingerprint_sql)");
+                    return context.nil;
+                }
+                final SchemaSnapshot snapshot = readSchemaSnapshot(context, connection, file, fingerprint, schemaName);
+                if ( snapshot == null ) return context.nil;
+                return mapSchemaSnapshot(context, connection, snapshot, schemaName, false, false);
             }
         });
     }
 
-    @JRubyMethod(name = {"columns", "columns_internal"}, required = 1, optional = 2)
-    public IRubyObject columns_internal(final ThreadContext context, final IRubyObject[] args)
-        throws SQLException {
-        return withConnection(context, new Callable<RubyArray>() {
-            public RubyArray call(final Connection connection) throws SQLException {
-                ResultSet columns = null;
-                try {
-                    final String tableName = args[0].toString();
-                    // optionals (NOTE: catalog argumnet was never used before 1.3.0) :
-                    final String catalog = args.length > 1 ? toStringOrNull(args[1]) : null;
-                    final String defaultSchema = args.length > 2 ? toStringOrNull(args[2]) : null;
+    /**
+     * Loads a persisted schema snapshot, when missing or stale the snapshot is
+     * fetched (once) and persisted. Without a <code>schema_fingerprint_sql</code>
+     * the snapshot is fetched (and not persisted).
+     *
+     * @param context
+     * @param args (path, schema = nil)
+     * @return { table_name => { columns: [], primary_keys: [] } }
+     * @see #load_schema_snapshot(ThreadContext, IRubyObject[])
+     * @see #dump_schema_snapshot(ThreadContext, IRubyObject[])
+     */
+    @JRubyMethod(name = "load_or_dump_schema_snapshot", required = 1, optional = 1)
+    public IRubyObject load_or_dump_schema_snapshot(final ThreadContext context, final IRubyObject[] args) {
+        final File file = new File(args[0].convertToString().toString());
+        final String schemaName = args.length > 1 ? toStringOrNull(args[1]) : null;
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                final String fingerprint = schemaFingerprint(context, connection);
+                SchemaSnapshot snapshot = null;
+                if ( fingerprint == null ) {
+                    debugMessage(context, "schema snapshot: " + file + " not used (no schema_fingerprint_sql)");
+                }
+                else if ( file.isFile() ) {
+                    snapshot = readSchemaSnapshot(context, connection, file, fingerprint, schemaName);
+                }
+                if ( snapshot == null ) {
+                    snapshot = fetchSchemaSnapshot(context, connection, schemaName);
+                    if ( fingerprint != null ) writeSchemaSnapshot(file, snapshot, fingerprint);
+                }
+                return mapSchemaSnapshot(context, connection, snapshot, schemaName, false, false);
+            }
+        });
+    }
 
-                    final TableName components;
-                    components = extractTableName(connection, catalog, defaultSchema, tableName);
+    private SchemaSnapshot readSchemaSnapshot(final ThreadContext context, final Connection connection,
+        final File file, final String fingerprint, final String schemaName) throws SQLException {
+        final SchemaSnapshot snapshot;
+        try {
+            snapshot = SchemaSnapshot.read(file, fingerprint);
+        }
+        catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+        if ( snapshot == null ) {
+            debugMessage(context, "schema snapshot: " + file + " is not valid or stale");
+            return null;
+        }
+        final String schema = caseConvertIdentifierForJdbc(connection, schemaName);
+        if ( schema == null ? snapshot.schema != null : ! schema.equals(snapshot.schema) ) {
+            debugMessage(context, "schema snapshot: " + file + " is of another schema: " + snapshot.schema);
+            return null;
+        }
+        return snapshot;
+    }
 
-                    if ( ! tableExists(context.getRuntime(), connection, components) ) {
-                        throw new SQLException("table: " + tableName + " does not exist");
-                    }
+    private static void writeSchemaSnapshot(final File file, final SchemaSnapshot snapshot,
+        final String fingerprint) throws SQLException {
+        try {
+            snapshot.write(file, fingerprint);
+        }
+        catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
 
-                    final DatabaseMetaData metaData = connection.getMetaData();
-                    columns = metaData.getColumns(components.catalog, components.schema, components.name, null);
-                    return mapColumnsResult(context, metaData, components, columns);
-                }
-                finally {
-                    close(columns);
+    /**
+     * Computes a fingerprint of the schema using the configured
+     * <code>schema_fingerprint_sql</code> query, supposed to be cheap e.g.
+     * selecting the last DDL time from the data dictionary. The fingerprint
+     * is a digest of all the returned values.
+     *
+     * @param context
+     * @param connection
+     * @return the fingerprint or null if no query is configured
+     * @throws SQLException
+     */
+    protected String schemaFingerprint(final ThreadContext context, final Connection connection)
+        throws SQLException {
+        final String sql = getConnectionConfig(context).schemaFingerprintSQL;
+        if ( sql == null ) return null;
+
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        }
+        catch (NoSuchAlgorithmException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+
+        Statement statement = null; ResultSet resultSet = null;
+        try {
+            statement = connection.createStatement();
+            resultSet = statement.executeQuery(sql);
+            final int count = resultSet.getMetaData().getColumnCount();
+            while ( resultSet.next() ) {
+                for ( int i = 1; i <= count; i++ ) {
+                    final String value = resultSet.getString(i);
+                    digest.update( value == null ? new byte[] { 0 } : value.getBytes(StandardCharsets.UTF_8) );
+                    digest.update( (byte) '|' );
                 }
+                digest.update( (byte) '\n' );
+            }
+        }
+        finally { close(resultSet); close(statement); }
+
+        final StringBuilder hex = new StringBuilder(40);
+        for ( final byte b : digest.digest() ) {
+            hex.append( Character.forDigit((b >> 4) & 0xF, 16) ).append( Character.forDigit(b & 0xF, 16) );
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @param context
+     * @return the current schema fingerprint (nil if none configured)
+     * @see #schemaFingerprint(ThreadContext, Connection)
+     */
+    @JRubyMethod(name = "schema_fingerprint")
+    public IRubyObject schema_fingerprint(final ThreadContext context) {
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                final String fingerprint = schemaFingerprint(context, connection);
+                return fingerprint == null ? context.nil : RubyString.newUnicodeString(context.runtime, fingerprint);
             }
         });
     }
@@ -1246,18 +2364,18 @@ public class RubyJdbcConnection extends RubyObject {
                 ResultSet indexInfoSet = null;
                 final List<IRubyObject> indexes = new ArrayList<IRubyObject>();
                 try {
-                    final DatabaseMetaData metaData = connection.getMetaData();
+                    final DatabaseMetaData metaData = getMetaData(context, connection);
                     indexInfoSet = metaData.getIndexInfo(table.catalog, table.schema, table.name, false, true);
                     String currentIndex = null;
 
                     while ( indexInfoSet.next() ) {
                         String indexName = indexInfoSet.getString(INDEX_INFO_NAME);
                         if ( indexName == null ) continue;
-                        indexName = caseConvertIdentifierForRails(metaData, indexName);
+                        indexName = getIdentifierCase(metaData).toRails(indexName);
 
                         final String columnName = indexInfoSet.getString(INDEX_INFO_COLUMN_NAME);
                         final RubyString rubyColumnName = RubyString.newUnicodeString(
-                                runtime, caseConvertIdentifierForRails(metaData, columnName)
+                                runtime, getIdentifierCase(metaData).toRails(columnName)
                         );
                         if ( primaryKeys.contains(rubyColumnName) ) continue;
 
@@ -1266,7 +2384,7 @@ public class RubyJdbcConnection extends RubyObject {
                             currentIndex = indexName;
 
                             String indexTableName = indexInfoSet.getString(INDEX_INFO_TABLE_NAME);
-                            indexTableName = caseConvertIdentifierForRails(metaData, indexTableName);
+                            indexTableName = getIdentifierCase(metaData).toRails(indexTableName);
 
                             final boolean nonUnique = indexInfoSet.getBoolean(INDEX_INFO_NON_UNIQUE);
 
@@ -1319,7 +2437,7 @@ public class RubyJdbcConnection extends RubyObject {
                 ResultSet fkInfoSet = null;
                 final List<IRubyObject> fKeys = new ArrayList<IRubyObject>(8);
                 try {
-                    final DatabaseMetaData metaData = connection.getMetaData();
+                    final DatabaseMetaData metaData = getMetaData(context, connection);
                     fkInfoSet = metaData.getImportedKeys(table.catalog, table.schema, table.name);
 
                     while ( fkInfoSet.next() ) {
@@ -1327,21 +2445,21 @@ public class RubyJdbcConnection extends RubyObject {
 
                         String fkName = fkInfoSet.getString("FK_NAME");
                         if (fkName != null) {
-                            fkName = caseConvertIdentifierForRails(metaData, fkName);
+                            fkName = getIdentifierCase(metaData).toRails(fkName);
                             options.put(runtime.newSymbol("name"), fkName);
                         }
 
                         String columnName = fkInfoSet.getString("FKCOLUMN_NAME");
-                        options.put(runtime.newSymbol("column"), caseConvertIdentifierForRails(metaData, columnName));
+                        options.put(runtime.newSymbol("column"), getIdentifierCase(metaData).toRails(columnName));
 
                         columnName = fkInfoSet.getString("PKCOLUMN_NAME");
-                        options.put(runtime.newSymbol("primary_key"), caseConvertIdentifierForRails(metaData, columnName));
+                        options.put(runtime.newSymbol("primary_key"), getIdentifierCase(metaData).toRails(columnName));
 
                         String fkTableName = fkInfoSet.getString("FKTABLE_NAME");
-                        fkTableName = caseConvertIdentifierForRails(metaData, fkTableName);
+                        fkTableName = getIdentifierCase(metaData).toRails(fkTableName);
 
                         String pkTableName = fkInfoSet.getString("PKTABLE_NAME");
-                        pkTableName = caseConvertIdentifierForRails(metaData, pkTableName);
+                        pkTableName = getIdentifierCase(metaData).toRails(pkTableName);
 
                         final String onDelete = extractForeignKeyRule( fkInfoSet.getInt("DELETE_RULE") );
                         if ( onDelete != null ) options.op_aset(context, runtime.newSymbol("on_delete"), runtime.newSymbol(onDelete));
@@ -1504,7 +2622,7 @@ public class RubyJdbcConnection extends RubyObject {
     protected String caseConvertIdentifierForRails(final Connection connection, final String value)
         throws SQLException {
         if ( value == null ) return null;
-        return caseConvertIdentifierForRails(connection.getMetaData(), value);
+        return getIdentifierCase(connection).toRails(value);
     }
 
     /**
@@ -1517,17 +2635,19 @@ public class RubyJdbcConnection extends RubyObject {
      *
      * Assumption 2: It is always safe to convert all upper case names since it appears that
      * some adapters do not report StoresUpper/Lower/Mixed correctly (am I right postgres/mysql?).
+     *
+     * @see #getIdentifierCase(DatabaseMetaData)
      */
     protected static String caseConvertIdentifierForRails(final DatabaseMetaData metaData, final String value)
         throws SQLException {
         if ( value == null ) return null;
-        return metaData.storesUpperCaseIdentifiers() ? value.toLowerCase() : value;
+        return IdentifierCase.of(metaData).toRails(value);
     }
 
     protected String caseConvertIdentifierForJdbc(final Connection connection, final String value)
         throws SQLException {
         if ( value == null ) return null;
-        return caseConvertIdentifierForJdbc(connection.getMetaData(), value);
+        return getIdentifierCase(connection).toJdbc(value);
     }
 
     /**
@@ -1538,14 +2658,26 @@ public class RubyJdbcConnection extends RubyObject {
     protected static String caseConvertIdentifierForJdbc(final DatabaseMetaData metaData, final String value)
         throws SQLException {
         if ( value == null ) return null;
+        return IdentifierCase.of(metaData).toJdbc(value);
+    }
 
-        if ( metaData.storesUpperCaseIdentifiers() ) {
-            return value.toUpperCase();
-        }
-        else if ( metaData.storesLowerCaseIdentifiers() ) {
-            return value.toLowerCase();
-        }
-        return value;
+    /**
+     * The identifier case policy is resolved once per (physical) connection,
+     * avoiding meta-data calls for every converted identifier.
+     * @param connection
+     * @return identifier case
+     * @throws SQLException
+     */
+    protected final IdentifierCase getIdentifierCase(final Connection connection) throws SQLException {
+        IdentifierCase idCase = identifierCase;
+        if ( idCase == null ) identifierCase = idCase = IdentifierCase.of(connection.getMetaData());
+        return idCase;
+    }
+
+    protected final IdentifierCase getIdentifierCase(final DatabaseMetaData metaData) throws SQLException {
+        IdentifierCase idCase = identifierCase;
+        if ( idCase == null ) identifierCase = idCase = IdentifierCase.of(metaData);
+        return idCase;
     }
 
     @JRubyMethod(name = "jndi_config?", meta = true)
@@ -1583,6 +2715,88 @@ public class RubyJdbcConnection extends RubyObject {
         return getInstanceVariable("@config"); // this.callMethod(context, "config");
     }
 
+    private volatile ConnectionConfig connectionConfig;
+
+    /**
+     * An (immutable) snapshot of configuration values used on "hot" paths,
+     * resolved once thus these do not need a <code>@config</code> lookup.
+     */
+    protected static final class ConnectionConfig {
+
+        public final Boolean statementEscapeProcessing; // :statement_escape_processing (null if not set)
+        public final int retryCount; // :retry_count
+        public final RubyString aliveSQL; // :connection_alive_sql
+        public final RubyInteger aliveTimeout; // :connection_alive_timeout
+        public final boolean stringBytes; // :string_bytes
+        public final int streamBufferSize; // :stream_buffer_size
+        public final boolean lazyLobs; // :lazy_lobs
+        public final int statementCacheSize; // :statement_cache_size
+        public final boolean lazyTransactions; // :lazy_transactions
+        public final long metaDataCacheTTL; // :metadata_cache_ttl (in seconds)
+        public final String schemaFingerprintSQL; // :schema_fingerprint_sql
+        public final boolean autoReplicaRouting; // :replica_routing == 'auto'
+
+        ConnectionConfig(final ThreadContext context, final RubyJdbcConnection connection) {
+            final IRubyObject config = connection.getConfig(context);
+            final boolean noConfig = config == null || config.isNil();
+
+            IRubyObject value = noConfig ? null : connection.getConfigValue(context, "statement_escape_processing");
+            statementEscapeProcessing = value == null || value.isNil() ? null : value.isTrue();
+            value = noConfig ? null : connection.getConfigValue(context, "retry_count");
+            retryCount = value == null || value.isNil() ? 0 : (int) value.convertToInteger().getLongValue();
+            value = noConfig ? null : connection.getConfigValue(context, "connection_alive_sql");
+            aliveSQL = value == null || value.isNil() ? null : value.convertToString();
+            value = noConfig ? null : connection.getConfigValue(context, "connection_alive_timeout");
+            aliveTimeout = value == null || value.isNil() ? null : value.convertToInteger("to_i");
+            value = noConfig ? null : connection.getConfigValue(context, "string_bytes");
+            stringBytes = value != null && value.isTrue() && connection.isStringBytesSupported(context);
+            value = noConfig ? null : connection.getConfigValue(context, "stream_buffer_size");
+            final int bufSize = value == null || value.isNil() ? 0 : RubyNumeric.fix2int(value);
+            streamBufferSize = bufSize > 0 ? bufSize : RubyJdbcConnection.streamBufferSize;
+            value = noConfig ? null : connection.getConfigValue(context, "lazy_lobs");
+            lazyLobs = value != null && value.isTrue();
+            value = noConfig ? null : connection.getConfigValue(context, "statement_cache_size");
+            statementCacheSize = value == null || value.isNil() ?
+                RubyJdbcConnection.statementCacheSize : RubyNumeric.fix2int(value);
+            value = noConfig ? null : connection.getConfigValue(context, "lazy_transactions");
+            lazyTransactions = value == null || value.isNil() ?
+                RubyJdbcConnection.lazyTransactions : value.isTrue();
+            value = noConfig ? null : connection.getConfigValue(context, "metadata_cache_ttl");
+            metaDataCacheTTL = value == null || value.isNil() ?
+                RubyJdbcConnection.metaDataCacheTTL : (long) ( RubyNumeric.num2dbl(value) * 1000 );
+            value = noConfig ? null : connection.getConfigValue(context, "schema_fingerprint_sql");
+            schemaFingerprintSQL = value == null || value.isNil() ? null : value.toString();
+            value = noConfig ? null : connection.getConfigValue(context, "replica_routing");
+            autoReplicaRouting = value != null && "auto".equals(value.toString());
+        }
+
+    }
+
+    protected final ConnectionConfig getConnectionConfig(final ThreadContext context) {
+        ConnectionConfig config = connectionConfig;
+        if ( config == null ) {
+            connectionConfig = config = new ConnectionConfig(context, this);
+        }
+        return config;
+    }
+
+    /**
+     * Re-reads the configuration values we "snapshot" from <code>@config</code>,
+     * needs to be called for changes to (such) config values to be noticed.
+     * @param context
+     * @return nil
+     */
+    @JRubyMethod(name = "refresh_config!")
+    public IRubyObject refresh_config(final ThreadContext context) {
+        refreshConfig(context);
+        return context.nil;
+    }
+
+    protected void refreshConfig(final ThreadContext context) {
+        connectionConfig = new ConnectionConfig(context, this);
+        clearStatementCache(); statementCache = null; // size might have changed
+    }
+
     protected final IRubyObject getConfigValue(final ThreadContext context, final String key) {
         final IRubyObject config = getConfig(context);
         final RubySymbol keySym = context.runtime.newSymbol(key);
@@ -1683,75 +2897,347 @@ public class RubyJdbcConnection extends RubyObject {
         return jdbcToRuby(runtime.getCurrentContext(), runtime, column, type, resultSet);
     }
 
+    /**
+     * Converts a (JDBC) column value into a Ruby object, delegates to the
+     * converter resolved using {@link #columnConverterFor(int)}.
+     */
     protected IRubyObject jdbcToRuby(
         final ThreadContext context, final Ruby runtime,
         final int column, final int type, final ResultSet resultSet)
         throws SQLException {
-
         try {
-            switch (type) {
+            return columnConverterFor(type).convert(context, runtime, this, resultSet, column);
+        }
+        catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Column (data) aware variant used when <code>jdbcToRuby</code> is customized,
+     * by default same as converting by index and type. Sub-classes might override
+     * to pass the column (data) along to converters thus resolved state (such as
+     * cast types) gets cached per result column.
+     * @see JdbcToRubyConverter
+     */
+    protected IRubyObject jdbcToRuby(final ThreadContext context, final Ruby runtime,
+        final ColumnData column, final ResultSet resultSet) throws SQLException {
+        return jdbcToRuby(context, runtime, column.index, column.type, resultSet);
+    }
+
+    /**
+     * Converts a (JDBC) column value into a Ruby object.
+     * Resolved once per result set column using {@link #columnConverterFor(int)}
+     * thus mapping rows does not need to go through {@link #jdbcToRuby} for every value.
+     */
+    protected static abstract class ColumnConverter {
+
+        public abstract IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException, IOException;
+
+        /**
+         * Converts a value of given column, by default same as converting by index.
+         * Converters might override to make use of per column (resolved) state.
+         */
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException, IOException {
+            return convert(context, runtime, connection, resultSet, column.index);
+        }
+
+    }
+
+    /**
+     * Delegates to {@link RubyJdbcConnection#jdbcToRuby(ThreadContext, Ruby, int, int, ResultSet)}
+     * used for sub-classes that override <code>jdbcToRuby</code> instead of
+     * {@link #columnConverterFor(int)} (and return true from {@link #isJdbcToRubyCustomized()}).
+     */
+    protected static class JdbcToRubyConverter extends ColumnConverter {
+
+        private final int type;
+
+        public JdbcToRubyConverter(final int type) { this.type = type; }
+
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.jdbcToRuby(context, runtime, column, type, resultSet);
+        }
+
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException {
+            return connection.jdbcToRuby(context, runtime, column, resultSet);
+        }
+
+    }
+
+    private static final ColumnConverter STREAM_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException, IOException {
+            return connection.streamToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter BLOB_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException, IOException {
+            return connection.blobToRuby(context, runtime, resultSet, column);
+        }
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException, IOException {
+            if ( column.lazyLob && connection.isLazyLobValid(context, resultSet) ) {
+                return connection.lazyBlobToRuby(context, runtime, resultSet, column.index);
+            }
+            return connection.blobToRuby(context, runtime, resultSet, column.index);
+        }
+    };
+
+    private static final ColumnConverter CLOB_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException, IOException {
+            return connection.clobToRuby(context, runtime, resultSet, column);
+        }
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException, IOException {
+            if ( column.lazyLob && connection.isLazyLobValid(context, resultSet) ) {
+                return connection.lazyClobToRuby(context, runtime, resultSet, column.index);
+            }
+            return connection.clobToRuby(context, runtime, resultSet, column.index);
+        }
+    };
+
+    private static final ColumnConverter READER_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException, IOException {
+            return connection.readerToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter INTEGER_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.integerToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter DOUBLE_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.doubleToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter BIG_INTEGER_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.bigIntegerToRuby(context, runtime, resultSet, column);
+        }
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException {
+            return connection.bigIntegerToRuby(context, runtime, resultSet, column.index, column);
+        }
+    };
+
+    private static final ColumnConverter DECIMAL_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.decimalToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter DATE_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.dateToRuby(context, runtime, resultSet, column);
+        }
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException {
+            return connection.dateToRuby(context, runtime, resultSet, column.index, column);
+        }
+    };
+
+    private static final ColumnConverter TIME_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.timeToRuby(context, runtime, resultSet, column);
+        }
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException {
+            return connection.timeToRuby(context, runtime, resultSet, column.index, column);
+        }
+    };
+
+    private static final ColumnConverter TIMESTAMP_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.timestampToRuby(context, runtime, resultSet, column);
+        }
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException {
+            return connection.timestampToRuby(context, runtime, resultSet, column.index, column);
+        }
+    };
+
+    private static final ColumnConverter BOOLEAN_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.booleanToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter XML_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.xmlToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter ARRAY_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.arrayToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter NULL_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column) {
+            return runtime.getNil();
+        }
+    };
+
+    private static final ColumnConverter OBJECT_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.objectToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter STRING_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.stringToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    private static final ColumnConverter CHAR_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return connection.charToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    /**
+     * Resolve the converter for a result set column of the given (JDBC) type.
+     * This is the (only) place where JDBC types are mapped, sub-classes that
+     * need custom conversions should override this method.
+     * @param type the column type (as reported by the result set meta-data)
+     * @return converter used for mapping all (row) values of the column
+     * @see #jdbcToRuby(ThreadContext, Ruby, int, int, ResultSet)
+     */
+    protected ColumnConverter columnConverterFor(final int type) {
+        switch (type) {
             case Types.BLOB:
+                return BLOB_CONVERTER;
             case Types.BINARY:
             case Types.VARBINARY:
             case Types.LONGVARBINARY:
-                return streamToRuby(context, runtime, resultSet, column);
+                return STREAM_CONVERTER;
             case Types.CLOB:
             case Types.NCLOB: // JDBC 4.0
-                return readerToRuby(context, runtime, resultSet, column);
+                return CLOB_CONVERTER;
             case Types.LONGVARCHAR:
             case Types.LONGNVARCHAR: // JDBC 4.0
-                return readerToRuby(context, runtime, resultSet, column);
+                return READER_CONVERTER;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.NCHAR: // JDBC 4.0
+            case Types.NVARCHAR: // JDBC 4.0
+                return CHAR_CONVERTER;
             case Types.TINYINT:
             case Types.SMALLINT:
             case Types.INTEGER:
-                return integerToRuby(context, runtime, resultSet, column);
+                return INTEGER_CONVERTER;
             case Types.REAL:
             case Types.FLOAT:
             case Types.DOUBLE:
-                return doubleToRuby(context, runtime, resultSet, column);
+                return DOUBLE_CONVERTER;
             case Types.BIGINT:
-                return bigIntegerToRuby(context, runtime, resultSet, column);
+                return BIG_INTEGER_CONVERTER;
             case Types.NUMERIC:
             case Types.DECIMAL:
-                return decimalToRuby(context, runtime, resultSet, column);
+                return DECIMAL_CONVERTER;
             case Types.DATE:
-                return dateToRuby(context, runtime, resultSet, column);
+                return DATE_CONVERTER;
             case Types.TIME:
-                return timeToRuby(context, runtime, resultSet, column);
+                return TIME_CONVERTER;
             case Types.TIMESTAMP:
-                return timestampToRuby(context, runtime, resultSet, column);
+                return TIMESTAMP_CONVERTER;
             case Types.BIT:
             case Types.BOOLEAN:
-                return booleanToRuby(context, runtime, resultSet, column);
+                return BOOLEAN_CONVERTER;
             case Types.SQLXML: // JDBC 4.0
-                return xmlToRuby(context, runtime, resultSet, column);
-            case Types.ARRAY: // we handle JDBC Array into (Ruby) []
-                return arrayToRuby(context, runtime, resultSet, column);
-            case Types.NULL:
-                return runtime.getNil();
-            // NOTE: (JDBC) exotic stuff just cause it's so easy with JRuby :)
-            case Types.JAVA_OBJECT:
-            case Types.OTHER:
-                return objectToRuby(context, runtime, resultSet, column);
-            // (default) String
-            case Types.CHAR:
-            case Types.VARCHAR:
-            case Types.NCHAR: // JDBC 4.0
-            case Types.NVARCHAR: // JDBC 4.0
+                return XML_CONVERTER;
+            case Types.ARRAY:
+                return ARRAY_CONVERTER;
+            case Types.NULL:
+                return NULL_CONVERTER;
+            case Types.JAVA_OBJECT:
+            case Types.OTHER:
+                return OBJECT_CONVERTER;
             default:
-                return stringToRuby(context, runtime, resultSet, column);
-            }
-            // NOTE: not mapped types :
-            //case Types.DISTINCT:
-            //case Types.STRUCT:
-            //case Types.REF:
-            //case Types.DATALINK:
-        }
-        catch (IOException e) {
-            throw new SQLException(e.getMessage(), e);
+                return STRING_CONVERTER;
         }
     }
 
+    /**
+     * Sub-classes that customize {@link #jdbcToRuby(ThreadContext, Ruby, int, int, ResultSet)}
+     * (instead of overriding {@link #columnConverterFor(int)}) should return true,
+     * values are than converted using <code>jdbcToRuby</code> for every column.
+     * @return false by default
+     */
+    protected boolean isJdbcToRubyCustomized() {
+        return false;
+    }
+
+    private ColumnConverter resolveColumnConverter(final int type) {
+        if ( isJdbcToRubyCustomized() ) return new JdbcToRubyConverter(type);
+        return columnConverterFor(type);
+    }
+
     protected IRubyObject integerToRuby(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column)
         throws SQLException {
@@ -1775,19 +3261,124 @@ public class RubyJdbcConnection extends RubyObject {
         return RubyString.newInternalFromJavaExternal(runtime, value);
     }
 
+    /**
+     * Converts (CHAR/VARCHAR) character values, same as {@link #stringToRuby}
+     * unless strings are to be read as (UTF-8) bytes.
+     * @see #isStringBytes(ThreadContext)
+     */
+    protected IRubyObject charToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException {
+        if ( isStringBytes(context) ) {
+            final byte[] value = resultSet.getBytes(column);
+            if ( value == null ) return runtime.getNil();
+            return RubyString.newString(runtime, new ByteList(value, UTF8Encoding.INSTANCE, false));
+        }
+        return stringToRuby(context, runtime, resultSet, column);
+    }
+
+    /**
+     * Whether character (CHAR/VARCHAR) strings should be read using <code>getBytes</code>
+     * and wrapped into UTF-8 Ruby strings as is (configured using :string_bytes).
+     * Only effective if the driver is known to return raw UTF-8 (wire) bytes for
+     * such columns.
+     * @see #isStringBytesSupported(ThreadContext)
+     */
+    protected boolean isStringBytes(final ThreadContext context) {
+        return getConnectionConfig(context).stringBytes;
+    }
+
+    /**
+     * Whether the driver returns raw (UTF-8) bytes from <code>getBytes</code>
+     * for character columns, resolved once with the connection configuration.
+     * NOTE: H2 does not, it returns (hex) decoded bytes for strings.
+     * @return false by default (adapters known to work override)
+     */
+    protected boolean isStringBytesSupported(final ThreadContext context) {
+        return false;
+    }
+
     protected IRubyObject bigIntegerToRuby(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException {
+        return bigIntegerToRuby(context, runtime, resultSet, column, null);
+    }
+
+    /**
+     * @param columnData the column (data) being converted, might be null
+     */
+    protected IRubyObject bigIntegerToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column,
+        final ColumnData columnData) throws SQLException {
+        // BIGINT UNSIGNED (MySQL) values might not fit into a long
+        if ( nativeNumeric && isSigned(resultSet, column, columnData) ) {
+            final long value = resultSet.getLong(column);
+            if ( value == 0 && resultSet.wasNull() ) return runtime.getNil();
+            return runtime.newFixnum(value);
+        }
+        return bigIntegerStringToRuby(runtime, resultSet, column);
+    }
+
+    private static boolean isSigned(final ResultSet resultSet, final int column,
+        final ColumnData columnData) throws SQLException {
+        if ( columnData == null ) return resultSet.getMetaData().isSigned(column);
+        Boolean signed = columnData.signed;
+        if ( signed == null ) {
+            columnData.signed = signed = resultSet.getMetaData().isSigned(column);
+        }
+        return signed.booleanValue();
+    }
+
+    private static IRubyObject bigIntegerStringToRuby(final Ruby runtime,
+        final ResultSet resultSet, final int column) throws SQLException {
         final String value = resultSet.getString(column);
         if ( value == null && resultSet.wasNull() ) return runtime.getNil();
         return RubyBignum.bignorm(runtime, new BigInteger(value));
     }
 
     protected IRubyObject decimalToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException {
+        if ( nativeNumeric ) {
+            final BigDecimal value = resultSet.getBigDecimal(column);
+            if ( value == null ) return runtime.getNil();
+            return new RubyBigDecimal(runtime, getBigDecimalClass(runtime), value);
+        }
+        return decimalStringToRuby(context, runtime, resultSet, column);
+    }
+
+    private IRubyObject decimalStringToRuby(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException {
         final String value = resultSet.getString(column);
         if ( value == null && resultSet.wasNull() ) return runtime.getNil();
 
-        return RubyBigDecimal.newInstance(context, runtime.getModule("BigDecimal"), runtime.newString(value));
+        return RubyBigDecimal.newInstance(context, getBigDecimalClass(runtime), runtime.newString(value));
+    }
+
+    private RubyClass bigDecimalClass; // resolved once (runtime is the same)
+
+    /**
+     * @return the (Ruby) <code>BigDecimal</code> class
+     */
+    protected final RubyClass getBigDecimalClass(final Ruby runtime) {
+        RubyClass klass = bigDecimalClass;
+        if ( klass == null ) bigDecimalClass = klass = runtime.getClass("BigDecimal");
+        return klass;
+    }
+
+    protected static boolean nativeNumeric = Boolean.getBoolean("arjdbc.numeric.native");
+
+    @JRubyMethod(name = "native_numeric?", meta = true)
+    public static IRubyObject useNativeNumeric(final ThreadContext context, final IRubyObject self) {
+        return context.getRuntime().newBoolean(nativeNumeric);
+    }
+
+    /**
+     * Whether DECIMAL/NUMERIC values are read using <code>getBigDecimal</code> and
+     * BIGINT values using <code>getLong</code> (falling back to a BigInteger when
+     * the value does not fit) instead of parsing the (JDBC) string values.
+     */
+    @JRubyMethod(name = "native_numeric=", meta = true)
+    public static IRubyObject setNativeNumeric(final IRubyObject self, final IRubyObject value) {
+        nativeNumeric = value.isTrue();
+        return value;
     }
 
     protected static Boolean rawDateTime;
@@ -1817,6 +3408,25 @@ public class RubyJdbcConnection extends RubyObject {
         return value;
     }
 
+    protected static boolean nativeDateTime = Boolean.getBoolean("arjdbc.datetime.native");
+
+    @JRubyMethod(name = "native_date_time?", meta = true)
+    public static IRubyObject useNativeDateTime(final ThreadContext context, final IRubyObject self) {
+        return context.getRuntime().newBoolean(nativeDateTime);
+    }
+
+    /**
+     * Whether date/time values get converted into Ruby objects (Date/Time)
+     * directly, without formatting values as strings to be parsed by the
+     * adapter's cast types. Time values are created in the time-zone
+     * of <code>ActiveRecord::Base.default_timezone</code>.
+     */
+    @JRubyMethod(name = "native_date_time=", meta = true)
+    public static IRubyObject setNativeDateTime(final IRubyObject self, final IRubyObject value) {
+        nativeDateTime = value.isTrue();
+        return value;
+    }
+
     /**
      * @return AR::Type-casted value
      * @since 1.3.18
@@ -1827,9 +3437,43 @@ public class RubyJdbcConnection extends RubyObject {
         return type.callMethod(context, "deserialize", value);
     }
 
+    /**
+     * Same as {@link #typeCastFromDatabase(ThreadContext, IRubyObject, RubySymbol, RubyString)}
+     * but the (adapter's) cast type is looked up only once per result column.
+     * <br/>
+     * NOTE: column data is (re-)created for every result thus a cast type never
+     * outlives a single result (e.g. after the adapter reloaded its type map).
+     * @param column column data to cache the resolved cast type on (might be null)
+     * @return AR::Type-casted value (or the raw value if there's no adapter)
+     */
+    protected final IRubyObject typeCastFromDatabase(final ThreadContext context,
+        final ColumnData column, final String typeName, final RubyString value) {
+        IRubyObject castType = null;
+        // NOTE: SQLite's converter might map a column's values as different types
+        if ( column != null && typeName.equals(column.castTypeName) ) castType = column.castType;
+        if ( castType == null ) {
+            final IRubyObject adapter = callMethod(context, "adapter"); // self.adapter
+            if ( adapter.isNil() ) return value; // NOTE: we warn on init_connection
+
+            castType = adapter.callMethod(context, "lookup_cast_type", context.runtime.newSymbol(typeName));
+            if ( column != null ) { column.castType = castType; column.castTypeName = typeName; }
+        }
+        return castType.callMethod(context, "deserialize", value);
+    }
+
     protected IRubyObject dateToRuby(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column)
         throws SQLException {
+        return dateToRuby(context, runtime, resultSet, column, null);
+    }
+
+    /**
+     * @param columnData the column (data) being converted, might be null
+     * @see #typeCastFromDatabase(ThreadContext, ColumnData, String, RubyString)
+     */
+    protected IRubyObject dateToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column,
+        final ColumnData columnData) throws SQLException {
 
         final Date value = resultSet.getDate(column);
         if ( value == null ) {
@@ -1837,19 +3481,31 @@ public class RubyJdbcConnection extends RubyObject {
             return runtime.newString(); // ""
         }
 
+        if ( nativeDateTime ) {
+            final IRubyObject date = newDate(context, value);
+            if ( date != null ) return date;
+        }
+
         final RubyString strValue = RubyString.newUnicodeString(runtime, value.toString());
         if ( rawDateTime != null && rawDateTime.booleanValue() ) return strValue;
 
-        final IRubyObject adapter = callMethod(context, "adapter"); // self.adapter
-        if ( adapter.isNil() ) return strValue; // NOTE: we warn on init_connection
-
         // NOTE: this CAN NOT be 100% correct - as :date is just a type guess!
-        return typeCastFromDatabase(context, adapter, runtime.newSymbol("date"), strValue);
+        return typeCastFromDatabase(context, columnData, "date", strValue);
     }
 
     protected IRubyObject timeToRuby(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column)
         throws SQLException {
+        return timeToRuby(context, runtime, resultSet, column, null);
+    }
+
+    /**
+     * @param columnData the column (data) being converted, might be null
+     * @see #typeCastFromDatabase(ThreadContext, ColumnData, String, RubyString)
+     */
+    protected IRubyObject timeToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column,
+        final ColumnData columnData) throws SQLException {
 
         final Time value = resultSet.getTime(column);
         if ( value == null ) {
@@ -1857,19 +3513,31 @@ public class RubyJdbcConnection extends RubyObject {
             return runtime.newString(); // ""
         }
 
+        if ( nativeDateTime ) {
+            final RubyTime time = newTime(context, value, getDefaultTimeZone(context, columnData));
+            if ( time != null ) return time;
+        }
+
         final RubyString strValue = RubyString.newUnicodeString(runtime, value.toString());
         if ( rawDateTime != null && rawDateTime.booleanValue() ) return strValue;
 
-        final IRubyObject adapter = callMethod(context, "adapter"); // self.adapter
-        if ( adapter.isNil() ) return strValue; // NOTE: we warn on init_connection
-
         // NOTE: this CAN NOT be 100% correct - as :time is just a type guess!
-        return typeCastFromDatabase(context, adapter, runtime.newSymbol("time"), strValue);
+        return typeCastFromDatabase(context, columnData, "time", strValue);
     }
 
     protected IRubyObject timestampToRuby(final ThreadContext context, // TODO
         final Ruby runtime, final ResultSet resultSet, final int column)
         throws SQLException {
+        return timestampToRuby(context, runtime, resultSet, column, null);
+    }
+
+    /**
+     * @param columnData the column (data) being converted, might be null
+     * @see #typeCastFromDatabase(ThreadContext, ColumnData, String, RubyString)
+     */
+    protected IRubyObject timestampToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column,
+        final ColumnData columnData) throws SQLException {
 
         final Timestamp value = resultSet.getTimestamp(column);
         if ( value == null ) {
@@ -1877,14 +3545,153 @@ public class RubyJdbcConnection extends RubyObject {
             return runtime.newString(); // ""
         }
 
+        if ( nativeDateTime ) {
+            final RubyTime time = newTime(context, value, getDefaultTimeZone(context, columnData));
+            if ( time != null ) return time;
+        }
+
         final RubyString strValue = timestampToRubyString(runtime, value.toString());
         if ( rawDateTime != null && rawDateTime.booleanValue() ) return strValue;
 
-        final IRubyObject adapter = callMethod(context, "adapter"); // self.adapter
-        if ( adapter.isNil() ) return strValue; // NOTE: we warn on init_connection
-
         // NOTE: this CAN NOT be 100% correct - as :timestamp is just a type guess!
-        return typeCastFromDatabase(context, adapter, runtime.newSymbol("timestamp"), strValue);
+        return typeCastFromDatabase(context, columnData, "timestamp", strValue);
+    }
+
+    /**
+     * @param context
+     * @return the zone for <code>ActiveRecord::Base.default_timezone</code>
+     */
+    protected static DateTimeZone getDefaultTimeZone(final ThreadContext context) {
+        final IRubyObject Base = ActiveRecord(context).getConstantAt("Base");
+        if ( Base instanceof RubyModule ) {
+            final IRubyObject zone = getDefaultTimezone(context, (RubyModule) Base);
+            if ( zone instanceof RubySymbol ) {
+                if ( "utc".equals( ((RubySymbol) zone).asJavaString() ) ) return DateTimeZone.UTC;
+            }
+            else if ( "utc".equals( zone.toString() ) ) return DateTimeZone.UTC;
+        }
+        return RubyTime.getLocalTimeZone(context.runtime);
+    }
+
+    private static final String DEFAULT_TIMEZONE_VAR = "@@default_timezone";
+
+    /**
+     * Reads <code>ActiveRecord::Base.default_timezone</code> without a (Ruby)
+     * method dispatch, it's a <code>mattr_accessor</code> (class variable).
+     */
+    private static IRubyObject getDefaultTimezone(final ThreadContext context, final RubyModule Base) {
+        if ( Base.isClassVarDefined(DEFAULT_TIMEZONE_VAR) ) return Base.getClassVar(DEFAULT_TIMEZONE_VAR);
+        return Base.callMethod(context, "default_timezone");
+    }
+
+    /**
+     * Same as {@link #getDefaultTimeZone(ThreadContext)} but resolved only once
+     * per result column.
+     * @param column column data to cache the resolved zone on (might be null)
+     */
+    protected static DateTimeZone getDefaultTimeZone(final ThreadContext context, final ColumnData column) {
+        if ( column == null ) return getDefaultTimeZone(context);
+        DateTimeZone zone = column.timeZone;
+        if ( zone == null ) zone = column.timeZone = getDefaultTimeZone(context);
+        return zone;
+    }
+
+    /**
+     * Creates a Ruby Time (in the default time zone) with the same local
+     * date-time fields the (JDBC) timestamp value has.
+     * @return a Time instance or null if the value could not be converted
+     */
+    protected static RubyTime newTime(final ThreadContext context, final Timestamp value) {
+        return newTime(context, value, getDefaultTimeZone(context));
+    }
+
+    /**
+     * @see #newTime(ThreadContext, Timestamp)
+     */
+    @SuppressWarnings("deprecation")
+    protected static RubyTime newTime(final ThreadContext context, final Timestamp value,
+        final DateTimeZone zone) {
+        final int nanos = value.getNanos();
+        final DateTime dateTime;
+        try {
+            // NOTE: same fields as Timestamp#toString (yyyy-mm-dd hh:mm:ss.fffffffff)
+            dateTime = new DateTime(
+                value.getYear() + 1900, value.getMonth() + 1, value.getDate(),
+                value.getHours(), value.getMinutes(), value.getSeconds(),
+                nanos / 1000000, zone
+            );
+        }
+        catch (IllegalArgumentException e) { // e.g. a local time in a DST gap
+            return null;
+        }
+        // AR parses up to usec precision (the rest of nsec are truncated)
+        return RubyTime.newTime(context.runtime, dateTime, ( nanos % 1000000 ) / 1000 * 1000);
+    }
+
+    /**
+     * Creates a Ruby Time (in the default time zone) on 2000-01-01 (same as AR).
+     * @return a Time instance or null if the value could not be converted
+     */
+    protected static RubyTime newTime(final ThreadContext context, final Time value) {
+        return newTime(context, value, getDefaultTimeZone(context));
+    }
+
+    /**
+     * @see #newTime(ThreadContext, Time)
+     */
+    @SuppressWarnings("deprecation")
+    protected static RubyTime newTime(final ThreadContext context, final Time value,
+        final DateTimeZone zone) {
+        int millis = (int) ( value.getTime() % 1000 );
+        if ( millis < 0 ) millis += 1000;
+        try {
+            final DateTime dateTime = new DateTime(2000, 1, 1,
+                value.getHours(), value.getMinutes(), value.getSeconds(),
+                millis, zone
+            );
+            return RubyTime.newTime(context.runtime, dateTime);
+        }
+        catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return a Ruby Date or null if <code>Date</code> is not available
+     */
+    @SuppressWarnings("deprecation")
+    protected static IRubyObject newDate(final ThreadContext context, final Date value) {
+        final Ruby runtime = context.runtime;
+        final RubyClass Date = runtime.getClass("Date");
+        if ( Date == null ) return null; // require 'date' missing
+
+        final int year = value.getYear() + 1900;
+        final int month = value.getMonth() + 1;
+        final int day = value.getDate();
+
+        // JRuby's date.rb is backed by Joda-Time, we create the instance the
+        // same way Date.civil does (for AD dates) without dispatching to Ruby
+        if ( year > 0 && Date.getConstantAt("JODA") != null ) {
+            final IRubyObject ITALY = Date.getConstantAt("ITALY");
+            if ( ITALY != null ) {
+                final DateTime dateTime;
+                try {
+                    dateTime = new DateTime(year, month, day, 0, 0, 0, 0, GJChronology.getInstanceUTC());
+                }
+                catch (IllegalArgumentException e) { return null; }
+                final IRubyObject date = Date.allocate();
+                final RubyFixnum zero = RubyFixnum.zero(runtime);
+                date.getInstanceVariables().setInstanceVariable("@dt", JavaUtil.convertJavaToUsableRubyObject(runtime, dateTime));
+                date.getInstanceVariables().setInstanceVariable("@sub_millis", zero);
+                date.getInstanceVariables().setInstanceVariable("@of", zero);
+                date.getInstanceVariables().setInstanceVariable("@sg", ITALY);
+                return date;
+            }
+        }
+
+        return Date.callMethod(context, "new", new IRubyObject[] {
+            runtime.newFixnum(year), runtime.newFixnum(month), runtime.newFixnum(day)
+        });
     }
 
     protected static RubyString timestampToRubyString(final Ruby runtime, String value) {
@@ -1906,55 +3713,285 @@ public class RubyJdbcConnection extends RubyObject {
         if ( booleanRaw != null ) {
             rawBoolean = Boolean.parseBoolean(booleanRaw);
         }
-    }
+    }
+
+    @JRubyMethod(name = "raw_boolean?", meta = true)
+    public static IRubyObject useRawBoolean(final ThreadContext context, final IRubyObject self) {
+        if ( rawBoolean == null ) return context.getRuntime().getNil();
+        return context.getRuntime().newBoolean( rawBoolean.booleanValue() );
+    }
+
+    @JRubyMethod(name = "raw_boolean=", meta = true)
+    public static IRubyObject setRawBoolean(final IRubyObject self, final IRubyObject value) {
+        if ( value instanceof RubyBoolean ) {
+            rawBoolean = ((RubyBoolean) value).isTrue();
+        }
+        else {
+            rawBoolean = value.isNil() ? null : Boolean.TRUE;
+        }
+        return value;
+    }
+
+    protected IRubyObject booleanToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column)
+        throws SQLException {
+        if ( rawBoolean != null && rawBoolean.booleanValue() ) {
+            final String value = resultSet.getString(column);
+            if ( resultSet.wasNull() ) return runtime.getNil();
+            return RubyString.newUnicodeString(runtime, value);
+        }
+        final boolean value = resultSet.getBoolean(column);
+        if ( resultSet.wasNull() ) return runtime.getNil();
+        return booleanToRuby(runtime, resultSet, value);
+    }
+
+    @Deprecated
+    protected IRubyObject booleanToRuby(
+        final Ruby runtime, final ResultSet resultSet, final boolean value)
+        throws SQLException {
+        if ( value == false && resultSet.wasNull() ) return runtime.getNil();
+        return runtime.newBoolean(value);
+    }
+
+    protected static int streamBufferSize = 2048;
+
+    /**
+     * @return the buffer size used for reading (LOB) streams,
+     * configured using :stream_buffer_size (defaults to 2048)
+     */
+    protected int getStreamBufferSize(final ThreadContext context) {
+        return getConnectionConfig(context).streamBufferSize;
+    }
+
+    /**
+     * Reads BLOB values using the (known) BLOB length, thus without buffering.
+     * Falls back to {@link #streamToRuby(ThreadContext, Ruby, ResultSet, int)}
+     * for drivers that do not support <code>ResultSet#getBlob</code>.
+     */
+    protected IRubyObject blobToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column)
+        throws SQLException, IOException {
+        final Blob value;
+        try {
+            value = resultSet.getBlob(column);
+        }
+        catch (SQLFeatureNotSupportedException e) {
+            return streamToRuby(context, runtime, resultSet, column);
+        }
+        if ( value == null ) return runtime.getNil();
+        try {
+            final long length = value.length();
+            if ( length <= Integer.MAX_VALUE - 8 ) {
+                final byte[] bytes = length == 0 ? ByteList.NULL_ARRAY : value.getBytes(1, (int) length);
+                return runtime.newString( new ByteList(bytes, false) );
+            }
+            final InputStream stream = value.getBinaryStream();
+            try {
+                return runtime.newString( readStream(stream, getStreamBufferSize(context), 0) );
+            }
+            finally { stream.close(); }
+        }
+        finally { free(value); }
+    }
+
+    private static void free(final Blob blob) {
+        try { blob.free(); }
+        catch (Exception e) { /* NOOP (JDBC 4.0) */ }
+        catch (AbstractMethodError e) { /* NOOP (JDBC 3.0 driver) */ }
+    }
+
+    private static void free(final Clob clob) {
+        try { clob.free(); }
+        catch (Exception e) { /* NOOP (JDBC 4.0) */ }
+        catch (AbstractMethodError e) { /* NOOP (JDBC 3.0 driver) */ }
+    }
+
+    /**
+     * Same as {@link #readerToRuby(ThreadContext, Ruby, ResultSet, int)}.
+     */
+    protected IRubyObject clobToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column)
+        throws SQLException, IOException {
+        return readerToRuby(context, runtime, resultSet, column);
+    }
+
+    private IRubyObject lazyBlobToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column)
+        throws SQLException, IOException {
+        final Blob value;
+        try {
+            value = resultSet.getBlob(column);
+        }
+        catch (SQLFeatureNotSupportedException e) {
+            return blobToRuby(context, runtime, resultSet, column);
+        }
+        if ( value == null ) return runtime.getNil();
+        return newLobIO(runtime, new LobInputStream(value));
+    }
+
+    private IRubyObject lazyClobToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column)
+        throws SQLException, IOException {
+        final Clob value;
+        try {
+            value = resultSet.getClob(column);
+        }
+        catch (SQLFeatureNotSupportedException e) {
+            return clobToRuby(context, runtime, resultSet, column);
+        }
+        if ( value == null ) return runtime.getNil();
+        return newLobIO(runtime, new LobInputStream(value));
+    }
+
+    /**
+     * Whether BLOB and CLOB values of raw results (<code>execute_query_raw</code>)
+     * are returned as IO objects (configured using :lazy_lobs) that read from
+     * the driver's LOB only when the IO is read.
+     * <br/>
+     * NOTE: results mapped for AR (type-casting) always read LOBs eagerly.
+     * @see #isLazyLobValid(ThreadContext, ResultSet)
+     */
+    protected boolean isLazyLobs(final ThreadContext context) {
+        return getConnectionConfig(context).lazyLobs;
+    }
+
+    /**
+     * LOB locators are only guaranteed to be valid for the duration of the
+     * transaction they were created in, thus LOBs are only returned lazily when
+     * the result comes from this (primary) connection while in a transaction.
+     * Such IO objects are valid until the next statement, commit or rollback
+     * on this connection or until closed explicitly.
+     * <br/>
+     * NOTE: replica (and async) connections are released right after the
+     * result gets mapped thus LOBs from these are always read eagerly.
+     */
+    protected boolean isLazyLobValid(final ThreadContext context, final ResultSet resultSet)
+        throws SQLException {
+        final Statement statement = resultSet.getStatement();
+        if ( statement == null ) return false;
+        final Connection connection = statement.getConnection();
+        if ( connection != getConnection(context, false) ) return false;
+        return ! isAutoCommit(connection);
+    }
+
+    private void markLazyLobs(final ThreadContext context, final ColumnData[] columns) {
+        if ( ! isLazyLobs(context) ) return;
+        for ( int i = 0; i < columns.length; i++ ) columns[i].lazyLob = true;
+    }
+
+    private final List<LobInputStream> openLobs = new ArrayList<LobInputStream>(4);
+
+    private IRubyObject newLobIO(final Ruby runtime, final LobInputStream stream) {
+        synchronized (openLobs) { openLobs.add(stream); }
+        return new RubyIO(runtime, stream);
+    }
+
+    /**
+     * Closes (and frees) LOBs returned as IO objects since the last statement.
+     */
+    protected final void releaseLobs() {
+        synchronized (openLobs) {
+            if ( openLobs.isEmpty() ) return;
+            for ( final LobInputStream lob : openLobs ) lob.close();
+            openLobs.clear();
+        }
+    }
+
+    /**
+     * A (lazy) stream over a BLOB or CLOB (CLOB characters are read as UTF-8).
+     */
+    private static final class LobInputStream extends InputStream {
+
+        private final Blob blob;
+        private final Clob clob;
+
+        private InputStream stream;
+        private Reader reader;
+        private CharsetEncoder encoder;
+        private CharBuffer chars;
+        private ByteBuffer bytes;
+        private boolean eof, closed;
+
+        LobInputStream(final Blob blob) { this.blob = blob; this.clob = null; }
+
+        LobInputStream(final Clob clob) { this.blob = null; this.clob = clob; }
+
+        private void open() throws IOException {
+            if ( closed ) throw new IOException("LOB no longer valid (closed)");
+            try {
+                if ( blob != null ) {
+                    stream = blob.getBinaryStream();
+                }
+                else {
+                    reader = clob.getCharacterStream();
+                    encoder = StandardCharsets.UTF_8.newEncoder().
+                        onMalformedInput(CodingErrorAction.REPLACE).
+                        onUnmappableCharacter(CodingErrorAction.REPLACE);
+                    chars = CharBuffer.allocate(1024); chars.flip();
+                    bytes = ByteBuffer.allocate(4096); bytes.flip();
+                }
+            }
+            catch (SQLException e) { throw new IOException(e.getMessage(), e); }
+        }
 
-    @JRubyMethod(name = "raw_boolean?", meta = true)
-    public static IRubyObject useRawBoolean(final ThreadContext context, final IRubyObject self) {
-        if ( rawBoolean == null ) return context.getRuntime().getNil();
-        return context.getRuntime().newBoolean( rawBoolean.booleanValue() );
-    }
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            final int len = read(b, 0, 1);
+            return len == -1 ? -1 : ( b[0] & 0xFF );
+        }
 
-    @JRubyMethod(name = "raw_boolean=", meta = true)
-    public static IRubyObject setRawBoolean(final IRubyObject self, final IRubyObject value) {
-        if ( value instanceof RubyBoolean ) {
-            rawBoolean = ((RubyBoolean) value).isTrue();
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if ( stream == null && reader == null ) open();
+            else if ( closed ) throw new IOException("LOB no longer valid (closed)");
+            if ( stream != null ) return stream.read(b, off, len);
+
+            if ( len == 0 ) return 0;
+            while ( ! bytes.hasRemaining() ) {
+                if ( eof && ! chars.hasRemaining() ) return -1;
+                encode();
+            }
+            final int count = Math.min(len, bytes.remaining());
+            bytes.get(b, off, count);
+            return count;
         }
-        else {
-            rawBoolean = value.isNil() ? null : Boolean.TRUE;
+
+        private void encode() throws IOException {
+            chars.compact();
+            if ( ! eof && reader.read(chars) == -1 ) eof = true;
+            chars.flip();
+            bytes.clear();
+            encoder.encode(chars, bytes, eof);
+            if ( eof && ! chars.hasRemaining() ) encoder.flush(bytes);
+            bytes.flip();
         }
-        return value;
-    }
 
-    protected IRubyObject booleanToRuby(final ThreadContext context,
-        final Ruby runtime, final ResultSet resultSet, final int column)
-        throws SQLException {
-        if ( rawBoolean != null && rawBoolean.booleanValue() ) {
-            final String value = resultSet.getString(column);
-            if ( resultSet.wasNull() ) return runtime.getNil();
-            return RubyString.newUnicodeString(runtime, value);
+        @Override
+        public void close() {
+            if ( closed ) return;
+            closed = true;
+            try {
+                if ( stream != null ) stream.close();
+                if ( reader != null ) reader.close();
+            }
+            catch (IOException e) { /* NOOP */ }
+            finally {
+                if ( blob != null ) free(blob);
+                if ( clob != null ) free(clob);
+            }
         }
-        final boolean value = resultSet.getBoolean(column);
-        if ( resultSet.wasNull() ) return runtime.getNil();
-        return booleanToRuby(runtime, resultSet, value);
-    }
 
-    @Deprecated
-    protected IRubyObject booleanToRuby(
-        final Ruby runtime, final ResultSet resultSet, final boolean value)
-        throws SQLException {
-        if ( value == false && resultSet.wasNull() ) return runtime.getNil();
-        return runtime.newBoolean(value);
     }
 
-    protected static int streamBufferSize = 2048;
-
     protected IRubyObject streamToRuby(final ThreadContext context,
         final Ruby runtime, final ResultSet resultSet, final int column)
         throws SQLException, IOException {
         final InputStream stream = resultSet.getBinaryStream(column);
         try {
             if ( resultSet.wasNull() ) return runtime.getNil();
-            return streamToRuby(runtime, resultSet, stream);
+            final int bufSize = getStreamBufferSize(context);
+            return runtime.newString( readStream(stream, bufSize, stream.available()) );
         }
         finally { if ( stream != null ) stream.close(); }
     }
@@ -1965,15 +4002,24 @@ public class RubyJdbcConnection extends RubyObject {
         throws SQLException, IOException {
         if ( stream == null && resultSet.wasNull() ) return runtime.getNil();
 
-        final int bufSize = streamBufferSize;
-        final ByteList string = new ByteList(bufSize);
+        return runtime.newString( readStream(stream, streamBufferSize, stream.available()) );
+    }
 
-        final byte[] buf = new byte[bufSize];
-        for (int len = stream.read(buf); len != -1; len = stream.read(buf)) {
-            string.append(buf, 0, len);
+    /**
+     * Reads the stream directly into the (growing) byte list, no buffer copying.
+     * @param sizeHint expected length (if known) to pre-size the bytes
+     */
+    private static ByteList readStream(final InputStream stream,
+        final int bufSize, final int sizeHint) throws IOException {
+        final ByteList string = new ByteList(Math.max(sizeHint, bufSize));
+        int size = 0;
+        while ( true ) {
+            string.ensure(size + bufSize);
+            final int len = stream.read(string.getUnsafeBytes(), size, bufSize);
+            if ( len == -1 ) break;
+            string.setRealSize(size += len);
         }
-
-        return runtime.newString(string);
+        return string;
     }
 
     protected IRubyObject readerToRuby(final ThreadContext context,
@@ -1982,7 +4028,8 @@ public class RubyJdbcConnection extends RubyObject {
         final Reader reader = resultSet.getCharacterStream(column);
         try {
             if ( resultSet.wasNull() ) return runtime.getNil();
-            return readerToRuby(runtime, resultSet, reader);
+            final String value = readReader(reader, getStreamBufferSize(context));
+            return RubyString.newInternalFromJavaExternal(runtime, value);
         }
         finally { if ( reader != null ) reader.close(); }
     }
@@ -1993,15 +4040,22 @@ public class RubyJdbcConnection extends RubyObject {
         throws SQLException, IOException {
         if ( reader == null && resultSet.wasNull() ) return runtime.getNil();
 
-        final int bufSize = streamBufferSize;
-        final StringBuilder string = new StringBuilder(bufSize);
+        return RubyString.newInternalFromJavaExternal(runtime, readReader(reader, streamBufferSize));
+    }
 
+    private static String readReader(final Reader reader, final int bufSize) throws IOException {
         final char[] buf = new char[bufSize];
-        for (int len = reader.read(buf); len != -1; len = reader.read(buf)) {
+        int len = reader.read(buf);
+        if ( len == -1 ) return "";
+        final int next = reader.read(); // short values (fitting the buffer) need no builder
+        if ( next == -1 ) return new String(buf, 0, len);
+
+        final StringBuilder string = new StringBuilder(bufSize * 2);
+        string.append(buf, 0, len).append((char) next);
+        for ( len = reader.read(buf); len != -1; len = reader.read(buf) ) {
             string.append(buf, 0, len);
         }
-
-        return RubyString.newInternalFromJavaExternal(runtime, string.toString());
+        return string.toString();
     }
 
     protected IRubyObject objectToRuby(final ThreadContext context,
@@ -2165,16 +4219,35 @@ public class RubyJdbcConnection extends RubyObject {
         JDBC_TYPE_FOR.put("nclob", Types.NCLOB);
     }
 
+    private static final int BIND_TYPES_CACHE_SIZE = 512;
+
+    // AR type (instance) -> resolved JDBC type, types are compared by identity
+    private final Map<IRubyObject, Integer> bindTypes = new IdentityHashMap<IRubyObject, Integer>(64);
+
+    /**
+     * Resolves the JDBC type for a bind attribute, the type is resolved once for
+     * every (AR) attribute type unless it needs to be guessed from the value.
+     */
     protected int jdbcTypeForAttribute(final ThreadContext context,
         final IRubyObject attribute) throws SQLException {
 
+        final IRubyObject attributeType = attributeType(context, attribute);
+        Integer sqlType;
+        synchronized (bindTypes) { sqlType = bindTypes.get(attributeType); }
+        if ( sqlType != null ) return sqlType.intValue();
+
         final String internedType = internedTypeFor(context, attribute);
-        final Integer sqlType = jdbcTypeFor(internedType);
-        if ( sqlType != null ) {
-            return sqlType.intValue();
+        sqlType = jdbcTypeFor(internedType);
+        if ( sqlType == null ) sqlType = Types.OTHER; // -1 as well as 0 are used in Types
+
+        // when the AR type does not tell (nil) the type is guessed based on value
+        if ( ! attributeType.callMethod(context, "type").isNil() ) {
+            synchronized (bindTypes) {
+                if ( bindTypes.size() >= BIND_TYPES_CACHE_SIZE ) bindTypes.clear();
+                bindTypes.put(attributeType, sqlType);
+            }
         }
-
-        return Types.OTHER; // -1 as well as 0 are used in Types
+        return sqlType.intValue();
     }
 
     protected Integer jdbcTypeFor(final String type) {
@@ -2303,7 +4376,7 @@ public class RubyJdbcConnection extends RubyObject {
         final int index, IRubyObject value,
         final IRubyObject attribute, final int type) throws SQLException {
 
-        value = callMethod(context, "time_in_default_timezone", value);
+        value = toTimeInstant(context, value);
 
         if (value instanceof RubyTime) {
             final RubyTime timeValue = (RubyTime) value;
@@ -2313,7 +4386,8 @@ public class RubyJdbcConnection extends RubyObject {
             // 1942-11-30T01:02:03.123_456
             if (type != Types.DATE && timeValue.getNSec() >= 0) timestamp.setNanos((int) (timestamp.getNanos() + timeValue.getNSec()));
 
-            statement.setTimestamp(index, timestamp, getTimeZoneCalendar(dateTime.getZone().getID()));
+            // same as binding value.getlocal (or value.utc) - only the instant matters
+            statement.setTimestamp(index, timestamp, getTimeZoneCalendar(getDefaultTimeZone(context)));
         } else if ( value instanceof RubyString ) { // yyyy-[m]m-[d]d hh:mm:ss[.f...]
             final Timestamp timestamp = Timestamp.valueOf(value.toString());
             statement.setTimestamp(index, timestamp); // assume local time-zone
@@ -2321,7 +4395,7 @@ public class RubyJdbcConnection extends RubyObject {
             final RubyFloat timeValue = value.convertToFloat(); // to_f
             final Timestamp timestamp = convertToTimestamp(timeValue);
 
-            statement.setTimestamp( index, timestamp, getTimeZoneCalendar("GMT") );
+            statement.setTimestamp( index, timestamp, getTimeZoneCalendar(DateTimeZone.UTC) );
         }
     }
 
@@ -2352,8 +4426,45 @@ public class RubyJdbcConnection extends RubyObject {
         return timestamp;
     }
 
-    private static Calendar getTimeZoneCalendar(final String ID) {
-        return Calendar.getInstance( TimeZone.getTimeZone(ID) );
+    private static final ThreadLocal<Map<DateTimeZone, Calendar>> timeZoneCalendars =
+        new ThreadLocal<Map<DateTimeZone, Calendar>>() {
+            @Override
+            protected Map<DateTimeZone, Calendar> initialValue() {
+                return new HashMap<DateTimeZone, Calendar>(4);
+            }
+        };
+
+    /**
+     * @return a (thread-confined) cached calendar for given zone
+     */
+    private static Calendar getTimeZoneCalendar(final DateTimeZone zone) {
+        final Map<DateTimeZone, Calendar> calendars = timeZoneCalendars.get();
+        Calendar calendar = calendars.get(zone);
+        if ( calendar == null ) {
+            calendar = Calendar.getInstance( zone.toTimeZone() );
+            calendars.put(zone, calendar);
+        }
+        return calendar;
+    }
+
+    /**
+     * Same as <code>time_in_default_timezone(value)</code> except that the
+     * (time) zone of the returned time is not adjusted, for binding only the
+     * instant matters. Avoids Ruby dispatch for Time and TimeWithZone values.
+     * @return a Time (for the same instant) or a non-Time value
+     */
+    protected final IRubyObject toTimeInstant(final ThreadContext context, final IRubyObject value) {
+        if ( value instanceof RubyTime ) return value;
+        if ( isTimeWithZone(value) ) { // ActiveSupport::TimeWithZone
+            final Object utc = value.getInstanceVariables().getInstanceVariable("@utc");
+            if ( utc instanceof RubyTime ) return (RubyTime) utc;
+            return value.callMethod(context, "utc");
+        }
+        return callMethod(context, "time_in_default_timezone", value);
+    }
+
+    private static boolean isTimeWithZone(final IRubyObject value) {
+        return "ActiveSupport::TimeWithZone".equals( value.getMetaClass().getRealClass().getName() );
     }
 
     protected void setTimeParameter(final ThreadContext context,
@@ -2361,13 +4472,13 @@ public class RubyJdbcConnection extends RubyObject {
         final int index, IRubyObject value,
         final IRubyObject attribute, final int type) throws SQLException {
 
-        value = callMethod(context, "time_in_default_timezone", value);
+        value = toTimeInstant(context, value);
 
         if ( value instanceof RubyTime ) {
             final DateTime dateTime = ((RubyTime) value).getDateTime();
             final Time time = new Time(dateTime.getMillis());
 
-            statement.setTime(index, time, getTimeZoneCalendar(dateTime.getZone().getID()));
+            statement.setTime(index, time, getTimeZoneCalendar(getDefaultTimeZone(context)));
         }
         else if ( value instanceof RubyString ) {
             final Time time = Time.valueOf(value.toString());
@@ -2377,7 +4488,7 @@ public class RubyJdbcConnection extends RubyObject {
             final RubyFloat timeValue = value.convertToFloat(); // to_f
             final Time time = new Time(timeValue.getLongValue() * 1000); // millis
             // java.sql.Time is expected to be only up to second precision
-            statement.setTime(index, time, getTimeZoneCalendar("GMT"));
+            statement.setTime(index, time, getTimeZoneCalendar(DateTimeZone.UTC));
         }
     }
 
@@ -2504,7 +4615,16 @@ public class RubyJdbcConnection extends RubyObject {
     }
 
     private IRubyObject setConnection(ThreadContext context, final Connection connection) {
+        autoCommit = null; // (new) connection state not known
+        identifierCase = null;
+        pendingTransaction = false; pendingIsolation = null;
+        schemaChanged = false;
+        sessionSQL = NO_SQL; // re-recorded while (re-)configuring
+        if ( connection == null ) releaseAsyncResults();
+        releaseLobs();
+        clearStatementCache();
         close(getConnection(context, false)); // close previously open connection if there is one
+        clearColumnsCache();
 
         final IRubyObject rubyConnectionObject = connection != null ?
                 convertJavaToRuby(connection) : context.runtime.getNil();
@@ -2554,16 +4674,14 @@ public class RubyJdbcConnection extends RubyObject {
      * internal API do not depend on it
      */
     protected final RubyString getAliveSQL(final ThreadContext context) {
-        final IRubyObject alive_sql = getConfigValue(context, "connection_alive_sql");
-        return alive_sql.isNil() ? null : alive_sql.convertToString();
+        return getConnectionConfig(context).aliveSQL;
     }
 
     /**
      * internal API do not depend on it
      */
     protected final RubyInteger getAliveTimeout(final ThreadContext context) {
-        final IRubyObject timeout = getConfigValue(context, "connection_alive_timeout");
-        return timeout.isNil() ? null : timeout.convertToInteger("to_i");
+        return getConnectionConfig(context).aliveTimeout;
     }
 
     private boolean tableExists(final Ruby runtime,
@@ -2599,7 +4717,7 @@ public class RubyJdbcConnection extends RubyObject {
 
         final String _tablePattern = caseConvertIdentifierForJdbc(connection, tablePattern);
         final String _schemaPattern = caseConvertIdentifierForJdbc(connection, schemaPattern);
-        final DatabaseMetaData metaData = connection.getMetaData();
+        final DatabaseMetaData metaData = getMetaData(runtime.getCurrentContext(), connection);
 
         ResultSet tablesSet = null;
         try {
@@ -2620,6 +4738,9 @@ public class RubyJdbcConnection extends RubyObject {
     protected final static int TABLES_TABLE_NAME = 3;
     protected final static int TABLES_TABLE_TYPE = 4;
 
+    // catalog, schema and name (identifies a table in getTables/getColumns/getPrimaryKeys rows)
+    private static final int[] TABLE_KEY = { TABLES_TABLE_CAT, TABLES_TABLE_SCHEM, TABLES_TABLE_NAME };
+
     /**
      * @param runtime
      * @param metaData
@@ -2638,7 +4759,7 @@ public class RubyJdbcConnection extends RubyObject {
         while ( tablesSet.next() ) {
             String name = tablesSet.getString(TABLES_TABLE_NAME);
 
-            name = caseConvertIdentifierForRails(metaData, name);
+            name = getIdentifierCase(metaData).toRails(name);
 
             tables.add(RubyString.newUnicodeString(runtime, name));
         }
@@ -2715,7 +4836,7 @@ public class RubyJdbcConnection extends RubyObject {
         final IRubyObject config = getConfig(context);
         while ( results.next() ) {
             final String colName = results.getString(COLUMN_NAME);
-            final RubyString railsColumnName = RubyString.newInternalFromJavaExternal(runtime, caseConvertIdentifierForRails(metaData, colName));
+            final RubyString railsColumnName = RubyString.newInternalFromJavaExternal(runtime, getIdentifierCase(metaData).toRails(colName));
             final IRubyObject defaultValue = defaultValueFromResultSet( runtime, results );
             final RubyString sqlType = RubyString.newInternalFromJavaExternal( runtime, typeFromResultSet(results) );
             final RubyBoolean nullable = runtime.newBoolean( ! results.getString(IS_NULLABLE).trim().equals("NO") );
@@ -2840,6 +4961,7 @@ public class RubyJdbcConnection extends RubyObject {
             final boolean downCase) throws SQLException {
 
         final ColumnData[] columns = extractColumns(runtime, connection, resultSet, downCase);
+        markLazyLobs(context, columns);
 
         final RubyArray results = runtime.newArray();
         // [ { 'col1': 1, 'col2': 2 }, { 'col1': 3, 'col2': 4 } ]
@@ -2852,12 +4974,12 @@ public class RubyJdbcConnection extends RubyObject {
             final Block block) throws SQLException {
 
         final ColumnData[] columns = extractColumns(runtime, connection, resultSet, false);
+        markLazyLobs(context, columns);
 
         final IRubyObject[] blockArgs = new IRubyObject[columns.length];
         while ( resultSet.next() ) {
             for ( int i = 0; i < columns.length; i++ ) {
-                final ColumnData column = columns[i];
-                blockArgs[i] = jdbcToRuby(context, runtime, column.index, column.type, resultSet);
+                blockArgs[i] = columnToRuby(context, runtime, columns[i], resultSet);
             }
             block.call( context, blockArgs );
         }
@@ -2880,6 +5002,300 @@ public class RubyJdbcConnection extends RubyObject {
         return setupColumns(runtime, connection, resultSet.getMetaData(), downCase);
     }
 
+    // NOTE: a value of 0 disables caching result columns (per SQL)
+    private static final int columnsCacheSize = Integer.getInteger("arjdbc.columns_cache.size", 256);
+
+    private final Map<String, ColumnData[]> columnsCache =
+        new ConcurrentHashMap<String, ColumnData[]>(columnsCacheSize > 0 ? 32 : 1);
+
+    /**
+     * Extract columns from result set, the (frozen) column names and data is
+     * cached for the given SQL, the cache is cleared on DDL.
+     * <br/>
+     * Returned columns are always copies, state resolved while mapping values
+     * (such as cast types) does not outlive a single result.
+     * @see #extractColumns(Ruby, Connection, ResultSet, boolean)
+     */
+    private ColumnData[] extractColumns(final Ruby runtime,
+        final Connection connection, final ResultSet resultSet,
+        final String query) throws SQLException {
+        if ( columnsCacheSize <= 0 ) return extractColumns(runtime, connection, resultSet, false);
+
+        final ResultSetMetaData metaData = resultSet.getMetaData();
+        final ColumnData[] cached = columnsCache.get(query);
+        // NOTE: DDL from another connection might have changed the columns
+        if ( cached != null && cached.length == metaData.getColumnCount() ) return copyColumns(cached);
+
+        final ColumnData[] columns = extractColumns(runtime, connection, resultSet, false);
+        for ( int i = 0; i < columns.length; i++ ) columns[i].name.setFrozen(true);
+
+        if ( columnsCache.size() >= columnsCacheSize ) { // keep it bounded
+            final Iterator<String> keys = columnsCache.keySet().iterator();
+            if ( keys.hasNext() ) { keys.next(); keys.remove(); }
+        }
+        columnsCache.put(query, columns);
+        return copyColumns(columns);
+    }
+
+    private static ColumnData[] copyColumns(final ColumnData[] columns) {
+        final ColumnData[] copy = new ColumnData[columns.length];
+        for ( int i = 0; i < columns.length; i++ ) copy[i] = columns[i].copy();
+        return copy;
+    }
+
+    protected final void clearColumnsCache() {
+        if ( ! columnsCache.isEmpty() ) columnsCache.clear();
+    }
+
+    /**
+     * Returns the connection's meta-data, caching schema (table, column, key
+     * and index) lookups when a metadata cache TTL is configured.
+     * @param context
+     * @param connection
+     * @return meta-data
+     * @throws SQLException
+     */
+    protected final DatabaseMetaData getMetaData(final ThreadContext context, final Connection connection)
+        throws SQLException {
+        final DatabaseMetaData metaData = connection.getMetaData();
+        final long ttl = getConnectionConfig(context).metaDataCacheTTL;
+        if ( ttl <= 0 ) return metaData;
+        return getMetaDataCache(context.runtime).wrap(metaData, getMetaDataCacheKey(context, metaData), ttl);
+    }
+
+    /**
+     * Clears (shared) cached schema meta-data for this connection's database.
+     * @param context
+     * @return nil
+     */
+    @JRubyMethod(name = "clear_metadata_cache!")
+    public IRubyObject clear_metadata_cache(final ThreadContext context) {
+        clearMetaDataCache(context);
+        return context.nil;
+    }
+
+    protected final void clearMetaDataCache(final ThreadContext context) {
+        final String key = metaDataCacheKey;
+        if ( key != null ) getMetaDataCache(context.runtime).clear(key);
+    }
+
+    @JRubyMethod(name = "metadata_cache_size")
+    public IRubyObject metadata_cache_size(final ThreadContext context) {
+        final String key = metaDataCacheKey;
+        return context.runtime.newFixnum( key == null ? 0 : getMetaDataCache(context.runtime).size(key) );
+    }
+
+    private String metaDataCacheKey;
+
+    private String getMetaDataCacheKey(final ThreadContext context, final DatabaseMetaData metaData)
+        throws SQLException {
+        String key = metaDataCacheKey;
+        if ( key == null ) { // NOTE: same DB URL (and user) shares the cache
+            final IRubyObject url = getConfigValue(context, "url");
+            final IRubyObject username = getConfigValue(context, "username");
+            key = ( url == null || url.isNil() ? metaData.getURL() : url.toString() ) + ' ' +
+                  ( username == null || username.isNil() ? metaData.getUserName() : username.toString() );
+            metaDataCacheKey = key;
+        }
+        return key;
+    }
+
+    private static MetaDataCache getMetaDataCache(final Ruby runtime) {
+        final RubyClass JdbcConnection = getJdbcConnectionClass(runtime);
+        synchronized (JdbcConnection) { // one per runtime
+            Object cache = JdbcConnection.getInternalVariable("metadata_cache");
+            if ( cache == null ) {
+                JdbcConnection.setInternalVariable("metadata_cache", cache = new MetaDataCache());
+            }
+            return (MetaDataCache) cache;
+        }
+    }
+
+    private static boolean isDDL(final String sql) {
+        final int len = sql.length(); int i = 0;
+        while ( i < len && ( Character.isWhitespace(sql.charAt(i)) || sql.charAt(i) == '(' ) ) i++;
+        return sql.regionMatches(true, i, "create", 0, 6) ||
+               sql.regionMatches(true, i, "alter", 0, 5) ||
+               sql.regionMatches(true, i, "drop", 0, 4) ||
+               sql.regionMatches(true, i, "rename", 0, 6);
+    }
+
+    private boolean schemaChanged; // DDL executed in the current transaction
+
+    /**
+     * Clears cached schema state (columns, statements and meta-data) after a
+     * DDL statement got executed. When in a transaction the (shared) meta-data
+     * cache gets cleared once more as the transaction ends, others might have
+     * cached the old schema until the DDL is committed.
+     * @param context
+     * @param connection the DDL got executed on
+     * @throws SQLException
+     */
+    private void schemaChanged(final ThreadContext context, final Connection connection)
+        throws SQLException {
+        clearColumnsCache(); clearStatementCache(); clearMetaDataCache(context);
+        if ( connection == getConnection(context, false) && ! isAutoCommit(connection) ) {
+            schemaChanged = true;
+        }
+    }
+
+    private void schemaCommitted(final ThreadContext context) {
+        if ( schemaChanged ) {
+            schemaChanged = false;
+            clearColumnsCache(); clearMetaDataCache(context);
+        }
+    }
+
+    private static final long metaDataCacheTTL = Long.getLong("arjdbc.metadata_cache.ttl", 0) * 1000;
+
+    private static final int statementCacheSize = Integer.getInteger("arjdbc.statement_cache.size", 0);
+
+    // lazy_transactions: true - begin only starts the transaction with the first statement
+    private static final boolean lazyTransactions = Boolean.getBoolean("arjdbc.transaction.lazy");
+
+    private StatementCache statementCache; // null - not resolved (yet)
+    private long statementCacheHits, statementCacheMisses; // guarded by statementCache
+
+    /**
+     * A (LRU) cache of prepared statements keyed by SQL and generated keys mode.
+     * Statements are removed while in use, so they are never shared (e.g. when
+     * the same query gets executed while yielding rows of a previous result).
+     */
+    @SuppressWarnings("serial")
+    private static final class StatementCache extends LinkedHashMap<StatementKey, PreparedStatement> {
+
+        final int maxSize; // 0 - caching disabled
+
+        StatementCache(final int maxSize) {
+            super(maxSize > 0 ? 16 : 1, 0.75f, true); this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<StatementKey, PreparedStatement> eldest) {
+            if ( size() > maxSize ) {
+                close( eldest.getValue() ); return true;
+            }
+            return false;
+        }
+
+        void closeAll() {
+            for ( final PreparedStatement statement : values() ) close(statement);
+            clear();
+        }
+
+    }
+
+    private static final class StatementKey {
+
+        final String sql;
+        final boolean generatedKeys;
+
+        StatementKey(final String sql, final boolean generatedKeys) {
+            this.sql = sql; this.generatedKeys = generatedKeys;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if ( ! ( obj instanceof StatementKey ) ) return false;
+            final StatementKey that = (StatementKey) obj;
+            return this.generatedKeys == that.generatedKeys && this.sql.equals(that.sql);
+        }
+
+        @Override
+        public int hashCode() {
+            return generatedKeys ? ~sql.hashCode() : sql.hashCode();
+        }
+
+    }
+
+    /**
+     * @return the statement cache (configured using :statement_cache_size)
+     */
+    private StatementCache getStatementCache(final ThreadContext context) {
+        StatementCache cache = statementCache;
+        if ( cache == null ) {
+            final int size = getConnectionConfig(context).statementCacheSize;
+            statementCache = cache = new StatementCache(Math.max(size, 0));
+        }
+        return cache;
+    }
+
+    /**
+     * Prepares a statement, re-using a previously prepared (cached) one if
+     * statement caching is enabled. Should be released after use using
+     * {@link #releaseStatement(ThreadContext, Connection, String, boolean, PreparedStatement)}.
+     */
+    protected final PreparedStatement prepareStatement(final ThreadContext context,
+        final Connection connection, final String query, final boolean generatedKeys)
+        throws SQLException {
+        final StatementCache cache = getStatementCache(context);
+        if ( cache.maxSize > 0 && connection == getConnection(context, false) ) {
+            final PreparedStatement statement;
+            synchronized (cache) {
+                statement = cache.remove( new StatementKey(query, generatedKeys) );
+                if ( statement != null ) statementCacheHits++;
+                else statementCacheMisses++;
+            }
+            if ( statement != null ) return statement;
+        }
+        if ( generatedKeys ) {
+            return connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+        }
+        return connection.prepareStatement(query);
+    }
+
+    /**
+     * Returns the statement back into the cache (or closes it).
+     * Only statements prepared on the (primary) connection get cached.
+     * @param connection the connection the statement has been prepared on
+     * @param statement might be null
+     */
+    protected final void releaseStatement(final ThreadContext context, final Connection connection,
+        final String query, final boolean generatedKeys, final PreparedStatement statement) {
+        if ( statement == null ) return;
+        final StatementCache cache = statementCache;
+        if ( cache == null || cache.maxSize == 0 ) { close(statement); return; }
+        if ( connection != getConnection(context, false) ) { close(statement); return; } // replica
+        try {
+            statement.clearParameters();
+            // the cache key is the SQL only, no state should leak into the next use
+            if ( statement.getMaxRows() != 0 ) statement.setMaxRows(0);
+            if ( statement.getFetchSize() != 0 ) statement.setFetchSize(0);
+        }
+        catch (SQLException e) { close(statement); return; }
+
+        final PreparedStatement previous;
+        synchronized (cache) {
+            previous = cache.put(new StatementKey(query, generatedKeys), statement);
+        }
+        if ( previous != null && previous != statement ) close(previous);
+    }
+
+    /**
+     * Closes all cached prepared statements.
+     */
+    protected final void clearStatementCache() {
+        final StatementCache cache = statementCache;
+        if ( cache == null || cache.isEmpty() ) return;
+        synchronized (cache) { cache.closeAll(); }
+    }
+
+    @JRubyMethod(name = "statement_cache_stats")
+    public IRubyObject statement_cache_stats(final ThreadContext context) {
+        final Ruby runtime = context.runtime;
+        final StatementCache cache = getStatementCache(context);
+        final RubyHash stats = RubyHash.newHash(runtime);
+        final int size; final long hits, misses;
+        synchronized (cache) {
+            size = cache.size(); hits = statementCacheHits; misses = statementCacheMisses;
+        }
+        stats.op_aset(context, runtime.newSymbol("size"), runtime.newFixnum(size));
+        stats.op_aset(context, runtime.newSymbol("max_size"), runtime.newFixnum(cache.maxSize));
+        stats.op_aset(context, runtime.newSymbol("hits"), runtime.newFixnum(hits));
+        stats.op_aset(context, runtime.newSymbol("misses"), runtime.newFixnum(misses));
+        return stats;
+    }
+
     protected <T> T withConnection(final ThreadContext context, final Callable<T> block)
         throws RaiseException {
         try {
@@ -2890,30 +5306,147 @@ public class RubyJdbcConnection extends RubyObject {
         }
     }
 
+    /**
+     * Same as {@link #withConnection(ThreadContext, Callable)} but for (read-only)
+     * queries, which get routed to a replica (if configured) unless we're in a
+     * transaction or reads are pinned to the primary due a recent write.
+     * <br/>
+     * Routing happens within a <code>with_replica</code> block, or with
+     * <code>replica_routing: auto</code> for queries that look side-effect free
+     * (unless within a <code>with_primary</code> block).
+     * @param <T>
+     * @param context
+     * @param query the SQL
+     * @param block
+     * @return result
+     * @throws RaiseException
+     * @see ReplicaRouter
+     */
+    protected <T> T withReadConnection(final ThreadContext context, final String query, final Callable<T> block)
+        throws RaiseException {
+        final ReplicaRouter router = replicaRouter;
+        if ( router == null || readConnection != null || pendingTransaction ) {
+            return withConnection(context, block);
+        }
+        final Boolean routing = replicaRouting;
+        if ( routing == null ) { // as configured
+            if ( ! getConnectionConfig(context).autoReplicaRouting || ! isReplicaSafe(query) ) {
+                return withConnection(context, block);
+            }
+        }
+        else if ( ! routing.booleanValue() ) { // with_primary
+            return withConnection(context, block);
+        }
+        if ( router.isPinned() ) return withConnection(context, block);
+
+        final Connection primary = getConnection(context, false);
+        final int replica; final Connection connection;
+        try {
+            if ( primary != null && ! isAutoCommit(primary) ) { // in a transaction
+                return withConnection(context, block);
+            }
+            replica = router.nextReplica();
+            connection = router.newConnection(replica);
+        }
+        catch (SQLException e) {
+            debugMessage(context, "replica connection not available due: " + e + " (using primary)");
+            return withConnection(context, block);
+        }
+        try {
+            configureReplica(connection);
+        }
+        catch (SQLException e) {
+            router.release(replica, connection);
+            debugMessage(context, "replica connection not configured due: " + e + " (using primary)");
+            return withConnection(context, block);
+        }
+
+        releaseLobs();
+        readConnection = connection;
+        try {
+            return block.call(connection);
+        }
+        catch (SQLException e) {
+            return handleException(context, e);
+        }
+        finally {
+            readConnection = null;
+            router.release(replica, connection);
+        }
+    }
+
+    private static final Pattern READ_SQL =
+        Pattern.compile("^\\s*\\(?\\s*(SELECT|WITH|SHOW)\\b", Pattern.CASE_INSENSITIVE);
+    // locking reads, (CTE) writes and functions with side-effects or session state :
+    private static final Pattern NON_REPLICA_SQL = Pattern.compile(
+        "\\bFOR\\s+(KEY\\s+)?SHARE\\b|\\bLOCK\\s+IN\\s+SHARE\\s+MODE\\b|" + // (FOR [NO KEY] UPDATE matches UPDATE)
+        "\\b(INSERT|UPDATE|DELETE|MERGE|INTO)\\b|@@IDENTITY|" +
+        "\\b(NEXTVAL|SETVAL|CURRVAL|LASTVAL|LAST_INSERT_ID|SCOPE_IDENTITY|GET_LOCK|RELEASE_LOCK|PG_(TRY_)?ADVISORY_\\w+)\\s*\\(",
+        Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Whether a query might be routed to a replica automatically.
+     * @param query
+     * @return true for plain reads (no locking reads, writes or functions
+     * with side-effects), false otherwise
+     */
+    protected boolean isReplicaSafe(final String query) {
+        return READ_SQL.matcher(query).find() && ! NON_REPLICA_SQL.matcher(query).find();
+    }
+
+    // (physical) replica connections and the session SQL they've been configured with
+    private static final Map<Connection, String[]> configuredReplicas = new WeakHashMap<Connection, String[]>();
+
+    private void configureReplica(final Connection connection) throws SQLException {
+        final String[] sessionSQL = this.sessionSQL;
+        Connection physical;
+        try { // a pooled connection (proxy) is different on every checkout
+            physical = connection.unwrap(Connection.class);
+        }
+        catch (SQLException e) { physical = null; }
+        catch (AbstractMethodError e) { physical = null; } // non-JDBC 4.0 driver
+        if ( physical == null ) { configureConnection(connection, sessionSQL); return; }
+
+        synchronized (configuredReplicas) {
+            if ( Arrays.equals(configuredReplicas.get(physical), sessionSQL) ) return;
+        }
+        configureConnection(connection, sessionSQL);
+        synchronized (configuredReplicas) { configuredReplicas.put(physical, sessionSQL); }
+    }
+
+    /**
+     * Marks a write (DML/DDL) to the replica router (if any).
+     */
+    protected final void markWrite() {
+        final ReplicaRouter router = replicaRouter;
+        if ( router != null ) router.markWrite();
+    }
+
     private <T> T withConnection(final ThreadContext context, final boolean handleException, final Callable<T> block)
         throws RaiseException, RuntimeException, SQLException {
 
         Throwable exception = null; int retry = 0; int i = 0;
 
+        releaseLobs(); // LOB (IO) values are valid until the next statement
+
         do {
             if ( retry > 0 ) reconnect(context); // we're retrying running block
 
             final Connection connection = getConnection(context, true);
+            startPendingTransaction(context, connection); // no retry if begin fails
             boolean autoCommit = true; // retry in-case getAutoCommit throws
             try {
-                autoCommit = connection.getAutoCommit();
+                autoCommit = isAutoCommit(connection);
                 return block.call(connection);
             }
             catch (final Exception e) { // SQLException or RuntimeException
                 exception = e;
 
+                if ( block instanceof YieldingCallable && ((YieldingCallable) block).yielded ) {
+                    break; // do not retry as results were already yielded
+                }
                 if ( autoCommit ) { // do not retry if (inside) transactions
-                    if ( i == 0 ) {
-                        IRubyObject retryCount = getConfigValue(context, "retry_count");
-                        if ( ! retryCount.isNil() ) {
-                            retry = (int) retryCount.convertToInteger().getLongValue();
-                        }
-                    }
+                    if ( i == 0 ) retry = getConnectionConfig(context).retryCount;
                     if ( isConnectionValid(context, connection) ) {
                         break; // connection not broken yet failed (do not retry)
                     }
@@ -3055,8 +5588,7 @@ public class RubyJdbcConnection extends RubyObject {
         final RubyArray row = runtime.newArray(columns.length);
 
         for (int i = 0; i < columns.length; i++) {
-            final ColumnData column = columns[i];
-            row.append(connection.jdbcToRuby(context, runtime, column.index, column.type, resultSet));
+            row.append(connection.columnToRuby(context, runtime, columns[i], resultSet));
         }
 
         return row;
@@ -3071,7 +5603,7 @@ public class RubyJdbcConnection extends RubyObject {
             for ( int i = 0; i < columns.length; i++ ) {
                 final ColumnData column = columns[i];
                 row.op_aset( context, column.name,
-                    connection.jdbcToRuby(context, runtime, column.index, column.type, resultSet)
+                    connection.columnToRuby(context, runtime, column, resultSet)
                 );
             }
 
@@ -3169,11 +5701,30 @@ public class RubyJdbcConnection extends RubyObject {
         public final RubyString name;
         public final int index;
         public final int type;
+        final ColumnConverter converter;
+        // (per result) resolved state :
+        IRubyObject castType; // (AR) cast type for the column
+        String castTypeName; // the type name castType was looked up for
+        DateTimeZone timeZone; // ActiveRecord::Base.default_timezone
+        Boolean signed; // ResultSetMetaData#isSigned
+        boolean lazyLob; // LOB values might be returned as (lazy) IO objects
 
         public ColumnData(RubyString name, int type, int idx) {
+            this(name, type, idx, null);
+        }
+
+        public ColumnData(RubyString name, int type, int idx, ColumnConverter converter) {
             this.name = name;
             this.type = type;
             this.index = idx;
+            this.converter = converter;
+        }
+
+        /**
+         * @return a copy of this column data without any (per result) resolved state
+         */
+        ColumnData copy() {
+            return new ColumnData(name, type, index, converter);
         }
 
         @Override
@@ -3195,19 +5746,44 @@ public class RubyJdbcConnection extends RubyObject {
         for ( int i = 1; i <= columnCount; i++ ) { // metadata is one-based
             String name = resultMetaData.getColumnLabel(i);
             if ( downCase ) {
-                name = name.toLowerCase();
+                name = IdentifierCase.toLowerCase(name);
             } else {
                 name = caseConvertIdentifierForRails(connection, name);
             }
 
             final RubyString columnName = RubyString.newInternalFromJavaExternal(runtime, name);
             final int columnType = resultMetaData.getColumnType(i);
-            columns[i - 1] = new ColumnData(columnName, columnType, i);
+            columns[i - 1] = newColumnData(columnName, columnType, i);
         }
 
         return columns;
     }
 
+    /**
+     * @param name the (Rails) column name
+     * @param type the JDBC type
+     * @param index the (one-based) column index
+     * @return column data with the value converter resolved for given type
+     * @see #columnConverterFor(int)
+     */
+    protected final ColumnData newColumnData(final RubyString name, final int type, final int index) {
+        return new ColumnData(name, type, index, resolveColumnConverter(type));
+    }
+
+    private IRubyObject columnToRuby(final ThreadContext context, final Ruby runtime,
+        final ColumnData column, final ResultSet resultSet) throws SQLException {
+        final ColumnConverter converter = column.converter;
+        if ( converter == null ) { // ColumnData created without a converter
+            return jdbcToRuby(context, runtime, column.index, column.type, resultSet);
+        }
+        try {
+            return converter.convert(context, runtime, this, resultSet, column);
+        }
+        catch (IOException e) {
+            throw new SQLException(e.getMessage(), e);
+        }
+    }
+
     // JDBC API Helpers :
 
     protected static void close(final Connection connection) {
@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package arjdbc.jdbc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.zip.CRC32;
+
+/**
+ * Raw (JDBC) meta-data rows of a whole schema : tables, columns and primary
+ * keys, as fetched by a schema snapshot.
+ * <br/>
+ * Might be persisted into a (compact) binary file, versioned and check-summed,
+ * along with a fingerprint of the schema to detect stale snapshots. Files are
+ * read using memory-mapped I/O.
+ */
+final class SchemaSnapshot {
+
+    private static final byte[] MAGIC = new byte[] { 'A','R','J','D','B','C','S','S' };
+    static final int VERSION = 1;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    final String catalog;
+    final String schema;
+    final MetaDataCache.Rows tables;
+    final MetaDataCache.Rows columns;
+    final MetaDataCache.Rows primaryKeys;
+
+    SchemaSnapshot(final String catalog, final String schema, final MetaDataCache.Rows tables,
+        final MetaDataCache.Rows columns, final MetaDataCache.Rows primaryKeys) {
+        this.catalog = catalog; this.schema = schema;
+        this.tables = tables; this.columns = columns; this.primaryKeys = primaryKeys;
+    }
+
+    /**
+     * Writes the snapshot (atomically, using a temporary file).
+     * @param file
+     * @param fingerprint the schema fingerprint
+     * @throws IOException
+     */
+    void write(final File file, final String fingerprint) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 * 1024);
+        final DataOutputStream payload = new DataOutputStream(bytes);
+        writeString(payload, catalog);
+        writeString(payload, schema);
+        writeRows(payload, tables);
+        writeRows(payload, columns);
+        writeRows(payload, primaryKeys);
+        payload.flush();
+
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+
+        // unique (per writer) in the same directory, thus a rename is possible
+        final File tmp = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+        boolean written = false;
+        try {
+            final DataOutputStream out = new DataOutputStream(new FileOutputStream(tmp));
+            try {
+                out.write(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, fingerprint);
+                out.writeInt(bytes.size());
+                out.writeLong(crc.getValue());
+                bytes.writeTo(out);
+            }
+            finally { out.close(); }
+
+            if ( ! tmp.renameTo(file) ) {
+                file.delete();
+                if ( ! tmp.renameTo(file) ) throw new IOException("could not rename " + tmp + " to " + file);
+            }
+            written = true;
+        }
+        finally {
+            if ( ! written ) tmp.delete();
+        }
+    }
+
+    /**
+     * Reads a snapshot unless the file is not valid or stale.
+     * @param file
+     * @param fingerprint the (current) schema fingerprint
+     * @return the snapshot or null if invalid (version, checksum) or stale
+     * @throws IOException
+     */
+    static SchemaSnapshot read(final File file, final String fingerprint) throws IOException {
+        if ( ! file.isFile() ) return null;
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = raf.getChannel();
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if ( buffer.remaining() < MAGIC.length + 4 ) return null;
+            for ( int i = 0; i < MAGIC.length; i++ ) {
+                if ( buffer.get() != MAGIC[i] ) return null;
+            }
+            if ( buffer.getInt() != VERSION ) return null;
+            final String savedFingerprint = readString(buffer);
+            if ( ! fingerprint.equals(savedFingerprint) ) return null; // stale
+
+            final int size = buffer.getInt();
+            final long checksum = buffer.getLong();
+            if ( size < 0 || size != buffer.remaining() ) return null;
+
+            final ByteBuffer payload = buffer.slice();
+            final byte[] data = new byte[size];
+            payload.get(data);
+            final CRC32 crc = new CRC32();
+            crc.update(data);
+            if ( crc.getValue() != checksum ) return null;
+
+            payload.rewind();
+            final String catalog = readString(payload);
+            final String schema = readString(payload);
+            final MetaDataCache.Rows tables = readRows(payload);
+            final MetaDataCache.Rows columns = readRows(payload);
+            final MetaDataCache.Rows primaryKeys = readRows(payload);
+            return new SchemaSnapshot(catalog, schema, tables, columns, primaryKeys);
+        }
+        catch (RuntimeException e) { // BufferUnderflowException etc.
+            return null; // corrupted
+        }
+        finally { raf.close(); }
+    }
+
+    // value tags :
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte SHORT = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte DECIMAL = 6;
+
+    private static void writeRows(final DataOutputStream out, final MetaDataCache.Rows rows)
+        throws IOException {
+        out.writeInt(rows.labels.length);
+        for ( final String label : rows.labels ) writeString(out, label);
+        out.writeInt(rows.values.length);
+        for ( final Object[] row : rows.values ) {
+            for ( final Object value : row ) writeValue(out, value);
+        }
+    }
+
+    private static MetaDataCache.Rows readRows(final ByteBuffer in) {
+        final String[] labels = new String[in.getInt()];
+        for ( int i = 0; i < labels.length; i++ ) labels[i] = readString(in);
+        final Object[][] values = new Object[in.getInt()][];
+        for ( int r = 0; r < values.length; r++ ) {
+            final Object[] row = values[r] = new Object[labels.length];
+            for ( int i = 0; i < row.length; i++ ) row[i] = readValue(in);
+        }
+        return new MetaDataCache.Rows(labels, values, System.currentTimeMillis());
+    }
+
+    private static void writeValue(final DataOutputStream out, final Object value) throws IOException {
+        if ( value == null ) out.writeByte(NULL);
+        else if ( value instanceof Integer ) { out.writeByte(INT); out.writeInt((Integer) value); }
+        else if ( value instanceof Long ) { out.writeByte(LONG); out.writeLong((Long) value); }
+        else if ( value instanceof Short ) { out.writeByte(SHORT); out.writeShort((Short) value); }
+        else if ( value instanceof Boolean ) { out.writeByte(BOOLEAN); out.writeBoolean((Boolean) value); }
+        else if ( value instanceof BigDecimal ) { out.writeByte(DECIMAL); writeString(out, value.toString()); }
+        else { out.writeByte(STRING); writeString(out, value.toString()); }
+    }
+
+    private static Object readValue(final ByteBuffer in) {
+        final byte tag = in.get();
+        switch ( tag ) {
+            case NULL: return null;
+            case INT: return in.getInt();
+            case LONG: return in.getLong();
+            case SHORT: return in.getShort();
+            case BOOLEAN: return in.get() != 0;
+            case DECIMAL: return new BigDecimal(readString(in));
+            case STRING: return readString(in);
+        }
+        throw new IllegalStateException("unexpected value tag: " + tag);
+    }
+
+    private static void writeString(final DataOutputStream out, final String str) throws IOException {
+        if ( str == null ) { out.writeInt(-1); return; }
+        final byte[] bytes = str.getBytes(UTF8);
+        out.writeInt(bytes.length); out.write(bytes);
+    }
+
+    private static String readString(final ByteBuffer in) {
+        final int length = in.getInt();
+        if ( length < 0 ) return null;
+        final byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+}
@@ -105,7 +105,7 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
                     "turning it off using the system property 'arjdbc.mssql.explain_support.disabled=true' " +
                     "or programatically by changing: `ArJdbc::MSSQL::ExplainSupport::DISABLED`");
             }
-            name = caseConvertIdentifierForRails(metaData, name);
+            name = getIdentifierCase(metaData).toRails(name);
             tables.add(RubyString.newUnicodeString(runtime, name));
         }
         return tables;
@@ -134,12 +134,9 @@ public class MSSQLRubyJdbcConnection extends RubyJdbcConnection {
      * Treat LONGVARCHAR as CLOB on MSSQL for purposes of converting a JDBC value to Ruby.
      */
     @Override
-    protected IRubyObject jdbcToRuby(
-        final ThreadContext context, final Ruby runtime,
-        final int column, int type, final ResultSet resultSet)
-        throws SQLException {
+    protected ColumnConverter columnConverterFor(int type) {
         if ( type == Types.LONGVARCHAR || type == Types.LONGNVARCHAR ) type = Types.CLOB;
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
+        return super.columnConverterFor(type);
     }
 
     @Override
@@ -90,20 +90,41 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
         return statement.execute(query, Statement.RETURN_GENERATED_KEYS);
     }
 
+    private static IRubyObject bitToRuby(final Ruby runtime,
+        final ResultSet resultSet, final int column) throws SQLException {
+        final int value = resultSet.getInt(column);
+        return resultSet.wasNull() ? runtime.getNil() : runtime.newFixnum(value);
+    }
+
+    private static final ColumnConverter BIT_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return bitToRuby(runtime, resultSet, column);
+        }
+    };
+
     @Override
-    protected IRubyObject jdbcToRuby(final ThreadContext context, final Ruby runtime,
-        final int column, final int type, final ResultSet resultSet) throws SQLException {
-        if ( type == Types.BIT ) {
-            final int value = resultSet.getInt(column);
-            return resultSet.wasNull() ? runtime.getNil() : runtime.newFixnum(value);
+    protected ColumnConverter columnConverterFor(final int type) {
+        if ( type == Types.BIT ) return BIT_CONVERTER;
+        return super.columnConverterFor(type);
+    }
+
+    @Override // characterEncoding is set from config[:encoding] (defaults to 'utf8')
+    protected boolean isStringBytesSupported(final ThreadContext context) {
+        final IRubyObject encoding = getConfigValue(context, "encoding");
+        if ( encoding.isNil() ) {
+            final IRubyObject config = getInstanceVariable("@config");
+            return ! config.callMethod(context, "key?", context.runtime.newSymbol("encoding")).isTrue();
         }
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
+        final String charset = encoding.toString();
+        return "utf8".equalsIgnoreCase(charset) || "utf8mb4".equalsIgnoreCase(charset) || "UTF-8".equalsIgnoreCase(charset);
     }
 
     @Override // can not use statement.setTimestamp( int, Timestamp, Calendar )
     protected void setTimestampParameter(ThreadContext context, Connection connection, PreparedStatement statement,
         int index, IRubyObject value, IRubyObject column, int type) throws SQLException {
-        value = callMethod(context, "time_in_default_timezone", value);
+        value = toTimeInstant(context, value); // only the instant (millis) is used
         TypeConverter.checkType(context, value, context.runtime.getTime());
         setTimestamp(statement, index, (RubyTime) value, type);
     }
@@ -129,7 +150,8 @@ public class MySQLRubyJdbcConnection extends RubyJdbcConnection {
     // FIXME: I think we can unify this back to main adapter code since previous conflict involved not using
     // the raw string return type and not the extra formatting logic.
     @Override
-    protected IRubyObject timeToRuby(ThreadContext context, Ruby runtime, ResultSet resultSet, int column) throws SQLException {
+    protected IRubyObject timeToRuby(ThreadContext context, Ruby runtime, ResultSet resultSet, int column,
+        ColumnData columnData) throws SQLException {
         Time value = resultSet.getTime(column);
 
         if (value == null) return resultSet.wasNull() ? runtime.getNil() : runtime.newString();
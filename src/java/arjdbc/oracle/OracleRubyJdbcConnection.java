@@ -32,6 +32,7 @@ Copyright (c) 2008-2011 Graham Jenkins, Michael Schoen, Raimonds Simanovskis
 package arjdbc.oracle;
 
 import arjdbc.jdbc.Callable;
+import arjdbc.jdbc.IdentifierCase;
 import arjdbc.jdbc.RubyJdbcConnection;
 import arjdbc.util.CallResultSet;
 
@@ -200,7 +201,7 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
         try {
             if ( resultSet.wasNull() ) return RubyString.newEmptyString(runtime);
 
-            final int bufSize = streamBufferSize;
+            final int bufSize = getStreamBufferSize(context);
             final StringBuilder string = new StringBuilder(bufSize);
 
             final char[] buf = new char[ bufSize / 2 ];
@@ -250,7 +251,7 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
         final RubyArray tables = RubyArray.newArray(runtime, 32);
         while ( tablesSet.next() ) {
             String name = tablesSet.getString(TABLES_TABLE_NAME);
-            name = caseConvertIdentifierForRails(metaData, name);
+            name = getIdentifierCase(metaData).toRails(name);
             // Handle stupid Oracle 10g RecycleBin feature
             if ( name.startsWith("bin$") ) continue;
             tables.append(RubyString.newUnicodeString(runtime, name));
@@ -271,7 +272,7 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
         for ( int i = 1; i <= columnCount; i++ ) { // metadata is one-based
             String name = resultMetaData.getColumnLabel(i);
             if ( downCase ) {
-                name = name.toLowerCase();
+                name = IdentifierCase.toLowerCase(name);
             } else {
                 name = caseConvertIdentifierForRails(connection, name);
             }
@@ -291,7 +292,7 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
                 }
             }
 
-            columns[i - 1] = new ColumnData(columnName, columnType, i);
+            columns[i - 1] = newColumnData(columnName, columnType, i);
         }
 
         return columns;
@@ -304,13 +305,13 @@ public class OracleRubyJdbcConnection extends RubyJdbcConnection {
     @Override
     protected String caseConvertIdentifierForRails(final Connection connection, final String value)
         throws SQLException {
-        return value == null ? null : value.toLowerCase();
+        return IdentifierCase.toLowerCase(value);
     }
 
     @Override
     protected String caseConvertIdentifierForJdbc(final Connection connection, final String value)
         throws SQLException {
-        return value == null ? null : value.toUpperCase();
+        return IdentifierCase.toUpperCase(value);
     }
 
     // based on OracleEnhanced's Ruby connection.describe
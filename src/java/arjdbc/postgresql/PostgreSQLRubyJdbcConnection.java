@@ -28,6 +28,7 @@ package arjdbc.postgresql;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.lang.StringBuilder;
+import java.math.BigDecimal;
 import java.sql.Array;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -36,11 +37,17 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import arjdbc.jdbc.Callable;
+
 import org.jruby.Ruby;
 import org.jruby.RubyArray;
 import org.jruby.RubyBoolean;
@@ -52,6 +59,7 @@ import org.jruby.RubyIO;
 import org.jruby.RubyModule;
 import org.jruby.RubyString;
 import org.jruby.anno.JRubyMethod;
+import org.jruby.ext.bigdecimal.RubyBigDecimal;
 import org.jruby.javasupport.JavaUtil;
 import org.jruby.runtime.ObjectAllocator;
 import org.jruby.runtime.ThreadContext;
@@ -181,12 +189,313 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         return value;
     }
 
+    @Override // driver only fetches using a cursor with auto-commit off
+    protected boolean isFetchSizeTransactional() {
+        return true;
+    }
+
+    // NOTE: schema introspection using (tuned) pg_catalog queries, instead of
+    // the driver's generic DatabaseMetaData ones, these are ~ the queries done
+    // by AR's PostgreSQL adapter with the table (name) filter being optional
+    // thus we're able to introspect all tables in a schema at once.
+    // These are plain queries, thus not cached by the (DatabaseMetaData) cache.
+    // Without a schema tables are resolved the way the search path does
+    // (only the first table of a given name on the path is visible).
+
+    private static final String PRIMARY_KEYS_SQL =
+        "SELECT t.relname, a.attname FROM (" +
+        " SELECT d.indrelid, d.indkey, generate_series(0, d.indnatts - 1) AS k" +
+        " FROM pg_index d WHERE d.indisprimary) x" +
+        " JOIN pg_class t ON t.oid = x.indrelid" +
+        " JOIN pg_namespace n ON n.oid = t.relnamespace" +
+        " JOIN pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = x.indkey[x.k]" +
+        " WHERE ";
+
+    private static final String INDEXES_SQL =
+        "SELECT t.relname, i.relname, d.indisunique, pg_get_indexdef(d.indexrelid)," +
+        " ARRAY(SELECT a.attname FROM generate_series(0, d.indnatts - 1) AS k" +
+        "  JOIN pg_attribute a ON a.attrelid = d.indrelid AND a.attnum = d.indkey[k] ORDER BY k)," +
+        " (SELECT COUNT(*) FROM generate_series(0, d.indnatts - 1) AS k WHERE d.indkey[k] = 0) +" +
+        " (SELECT COUNT(*) FROM pg_opclass o" +
+        "  JOIN (SELECT unnest(string_to_array(d.indclass::text, ' '))::int oid) c" +
+        "  ON o.oid = c.oid WHERE o.opcdefault = 'f')," +
+        " pg_catalog.obj_description(i.oid, 'pg_class')" +
+        " FROM pg_index d" +
+        " JOIN pg_class t ON t.oid = d.indrelid" +
+        " JOIN pg_class i ON i.oid = d.indexrelid" +
+        " JOIN pg_namespace n ON n.oid = t.relnamespace" +
+        " WHERE i.relkind = 'i' AND d.indisprimary = 'f' AND ";
+
+    private static final String FOREIGN_KEYS_SQL =
+        "SELECT t1.relname, t2.oid::regclass::text, a1.attname, a2.attname," +
+        " c.conname, c.confupdtype, c.confdeltype" +
+        " FROM pg_constraint c" +
+        " JOIN pg_class t1 ON c.conrelid = t1.oid" +
+        " JOIN pg_class t2 ON c.confrelid = t2.oid" +
+        " JOIN pg_attribute a1 ON a1.attnum = c.conkey[1] AND a1.attrelid = t1.oid" +
+        " JOIN pg_attribute a2 ON a2.attnum = c.confkey[1] AND a2.attrelid = t2.oid" +
+        " JOIN pg_namespace n ON c.connamespace = n.oid" +
+        " WHERE c.contype = 'f' AND ";
+
+    private static final Pattern INDEX_DEF_PATTERN = Pattern.compile(" USING (\\w+?) \\((.+?)\\)(?: WHERE (.+))?\\z");
+    private static final Pattern INDEX_DESC_PATTERN = Pattern.compile("(\\w+) DESC");
+
+    @Override
+    protected List<RubyString> primaryKeys(final ThreadContext context,
+        final Connection connection, final TableName table) throws SQLException {
+        final Map<String, List<RubyString>> keys =
+            mapPrimaryKeys(context, connection, table.schema, table.name);
+        final List<RubyString> tableKeys = keys.get(table.name);
+        return tableKeys == null ? new ArrayList<RubyString>(0) : tableKeys;
+    }
+
+    /**
+     * @param context
+     * @param connection
+     * @param schema the schema (null for the current search path)
+     * @param table the table name, if null all tables in the schema
+     * @return primary key column names (in key order) by table name
+     * @throws SQLException
+     */
+    protected Map<String, List<RubyString>> mapPrimaryKeys(final ThreadContext context,
+        final Connection connection, final String schema, final String table) throws SQLException {
+        final Ruby runtime = context.runtime;
+        final Map<String, List<RubyString>> keys = new LinkedHashMap<String, List<RubyString>>();
+        PreparedStatement statement = null; ResultSet resultSet = null;
+        try {
+            statement = prepareCatalogQuery(connection, PRIMARY_KEYS_SQL, schema, "t", table, "t.relname, x.k");
+            resultSet = statement.executeQuery();
+            while ( resultSet.next() ) {
+                final String tableName = resultSet.getString(1);
+                List<RubyString> tableKeys = keys.get(tableName);
+                if ( tableKeys == null ) keys.put(tableName, tableKeys = new ArrayList<RubyString>(2));
+                tableKeys.add( RubyString.newUnicodeString(runtime, resultSet.getString(2)) );
+            }
+        }
+        finally { close(resultSet); close(statement); }
+        return keys;
+    }
+
+    @Override
+    protected IRubyObject indexes(final ThreadContext context, final String tableName, final String name, final String schemaName) {
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                final TableName table = catalogTableName(connection, schemaName, tableName);
+                final RubyArray indexes = mapIndexes(context, connection, table.schema, table.name).get(table.name);
+                return indexes == null ? context.runtime.newEmptyArray() : indexes;
+            }
+        });
+    }
+
+    /**
+     * @param context
+     * @param connection
+     * @param schema the schema (null for the current search path)
+     * @param table the table name, if null all tables in the schema
+     * @return index definitions (primary keys excluded) by table name
+     * @throws SQLException
+     */
+    protected Map<String, RubyArray> mapIndexes(final ThreadContext context,
+        final Connection connection, final String schema, final String table) throws SQLException {
+        final Ruby runtime = context.runtime;
+        final RubyClass IndexDefinition = getIndexDefinition(context);
+        final Map<String, RubyArray> indexes = new LinkedHashMap<String, RubyArray>();
+        PreparedStatement statement = null; ResultSet resultSet = null;
+        try {
+            statement = prepareCatalogQuery(connection, INDEXES_SQL, schema, "t", table, "t.relname, i.relname");
+            resultSet = statement.executeQuery();
+            while ( resultSet.next() ) {
+                final String tableName = resultSet.getString(1);
+                final String definition = resultSet.getString(4);
+
+                String using = null, expressions = null, where = null;
+                final Matcher matcher = INDEX_DEF_PATTERN.matcher(definition);
+                if ( matcher.find() ) {
+                    using = matcher.group(1); expressions = matcher.group(2); where = matcher.group(3);
+                }
+
+                final IRubyObject columns; IRubyObject orders = context.nil;
+                if ( resultSet.getInt(6) > 0 ) { // expression index or custom operator class
+                    columns = expressions == null ? context.nil : RubyString.newUnicodeString(runtime, expressions);
+                }
+                else {
+                    final RubyArray names = runtime.newArray();
+                    final Array array = resultSet.getArray(5);
+                    for ( final Object column : (Object[]) array.getArray() ) {
+                        names.append( RubyString.newUnicodeString(runtime, column.toString()) );
+                    }
+                    columns = names;
+                    // only desc order is explicitly specified, asc is the default
+                    final RubyHash desc = RubyHash.newHash(runtime);
+                    if ( expressions != null ) {
+                        final Matcher order = INDEX_DESC_PATTERN.matcher(expressions);
+                        while ( order.find() ) {
+                            desc.op_aset(context, RubyString.newUnicodeString(runtime, order.group(1)), runtime.newSymbol("desc"));
+                        }
+                    }
+                    orders = desc;
+                }
+
+                final String comment = resultSet.getString(7);
+                final IRubyObject[] args = new IRubyObject[] {
+                    RubyString.newUnicodeString(runtime, table == null ? tableName : table), // table
+                    RubyString.newUnicodeString(runtime, resultSet.getString(2)), // name
+                    runtime.newBoolean( resultSet.getBoolean(3) ), // unique
+                    columns,
+                    runtime.newEmptyArray(), // lengths
+                    orders,
+                    where == null ? context.nil : RubyString.newUnicodeString(runtime, where),
+                    context.nil, // type
+                    using == null ? context.nil : runtime.newSymbol(using),
+                    comment == null || comment.isEmpty() ? context.nil : RubyString.newUnicodeString(runtime, comment)
+                };
+
+                RubyArray tableIndexes = indexes.get(tableName);
+                if ( tableIndexes == null ) indexes.put(tableName, tableIndexes = runtime.newArray());
+                tableIndexes.append( IndexDefinition.callMethod(context, "new", args) );
+            }
+        }
+        finally { close(resultSet); close(statement); }
+        return indexes;
+    }
+
+    @Override
+    protected IRubyObject foreignKeys(final ThreadContext context, final String tableName, final String schemaName, final String catalog) {
+        return withConnection(context, new Callable<IRubyObject>() {
+            public IRubyObject call(final Connection connection) throws SQLException {
+                final TableName table = catalogTableName(connection, schemaName, tableName);
+                final RubyArray fKeys = mapForeignKeys(context, connection, table.schema, table.name).get(table.name);
+                return fKeys == null ? context.runtime.newEmptyArray() : fKeys;
+            }
+        });
+    }
+
+    /**
+     * @param context
+     * @param connection
+     * @param schema the schema (null for the current search path)
+     * @param table the table name, if null all tables in the schema
+     * @return foreign key definitions by (from) table name
+     * @throws SQLException
+     */
+    protected Map<String, RubyArray> mapForeignKeys(final ThreadContext context,
+        final Connection connection, final String schema, final String table) throws SQLException {
+        final Ruby runtime = context.runtime;
+        final RubyClass FKDefinition = getForeignKeyDefinition(context);
+        final Map<String, RubyArray> fKeys = new LinkedHashMap<String, RubyArray>();
+        PreparedStatement statement = null; ResultSet resultSet = null;
+        try {
+            statement = prepareCatalogQuery(connection, FOREIGN_KEYS_SQL, schema, "t1", table, "t1.relname, c.conname");
+            resultSet = statement.executeQuery();
+            while ( resultSet.next() ) {
+                final String tableName = resultSet.getString(1);
+
+                final RubyHash options = RubyHash.newHash(runtime);
+                options.op_aset(context, runtime.newSymbol("column"), RubyString.newUnicodeString(runtime, resultSet.getString(3)));
+                options.op_aset(context, runtime.newSymbol("name"), RubyString.newUnicodeString(runtime, resultSet.getString(5)));
+                options.op_aset(context, runtime.newSymbol("primary_key"), RubyString.newUnicodeString(runtime, resultSet.getString(4)));
+                options.op_aset(context, runtime.newSymbol("on_delete"), foreignKeyAction(runtime, resultSet.getString(7)));
+                options.op_aset(context, runtime.newSymbol("on_update"), foreignKeyAction(runtime, resultSet.getString(6)));
+
+                final IRubyObject[] args = new IRubyObject[] {
+                    RubyString.newUnicodeString(runtime, table == null ? tableName : table), // from_table
+                    RubyString.newUnicodeString(runtime, resultSet.getString(2)), // to_table
+                    options
+                };
+
+                RubyArray tableKeys = fKeys.get(tableName);
+                if ( tableKeys == null ) fKeys.put(tableName, tableKeys = runtime.newArray());
+                tableKeys.append( FKDefinition.callMethod(context, "new", args) );
+            }
+        }
+        finally { close(resultSet); close(statement); }
+        return fKeys;
+    }
+
+    // NOTE: unlike extractTableName keeps the schema null (search path) if not given
+    private TableName catalogTableName(final Connection connection,
+        final String schemaName, final String tableName) throws SQLException {
+        if ( schemaName == null && tableName.indexOf('.') == -1 ) {
+            return new TableName(null, null, tableName);
+        }
+        return extractTableName(connection, null, schemaName, tableName);
+    }
+
+    private static IRubyObject foreignKeyAction(final Ruby runtime, final String action) {
+        if ( action == null || action.length() != 1 ) return runtime.getNil();
+        switch ( action.charAt(0) ) {
+            case 'c': return runtime.newSymbol("cascade");
+            case 'n': return runtime.newSymbol("nullify");
+            case 'r': return runtime.newSymbol("restrict");
+        }
+        return runtime.getNil();
+    }
+
+    /**
+     * @param tableAlias the (pg_class) table alias used in the SQL
+     */
+    private static PreparedStatement prepareCatalogQuery(final Connection connection,
+        final String sql, final String schema, final String tableAlias, final String table,
+        final String orderBy) throws SQLException {
+        final StringBuilder query = new StringBuilder(sql.length() + 128).append(sql);
+        if ( schema == null ) { // only the table (of a name) that the search path resolves to
+            query.append("n.nspname = ANY (current_schemas(false)) AND pg_table_is_visible(").
+                  append(tableAlias).append(".oid)");
+        }
+        else {
+            query.append("n.nspname = ?");
+        }
+        if ( table != null ) query.append(" AND ").append(tableAlias).append(".relname = ?");
+        query.append(" ORDER BY ").append(orderBy);
+
+        final PreparedStatement statement = connection.prepareStatement(query.toString());
+        int index = 1;
+        if ( schema != null ) statement.setString(index++, schema);
+        if ( table != null ) statement.setString(index, table);
+        return statement;
+    }
+
+    /**
+     * Indexes and foreign keys are fetched for all the tables at once.
+     */
+    @Override
+    protected RubyHash schemaSnapshot(final ThreadContext context, final Connection connection,
+        final String schemaName, final boolean withIndexes, final boolean withForeignKeys) throws SQLException {
+        final RubyHash snapshot = super.schemaSnapshot(context, connection, schemaName, false, false);
+        if ( ! withIndexes && ! withForeignKeys ) return snapshot;
+
+        final Ruby runtime = context.runtime;
+        final String schema = caseConvertIdentifierForJdbc(connection, schemaName); // as the snapshot
+        final Map<String, RubyArray> indexes = withIndexes ? mapIndexes(context, connection, schema, null) : null;
+        final Map<String, RubyArray> fKeys = withForeignKeys ? mapForeignKeys(context, connection, schema, null) : null;
+
+        final RubyArray tables = snapshot.keys();
+        for ( int i = 0; i < tables.size(); i++ ) {
+            final IRubyObject table = tables.eltInternal(i);
+            final RubyHash entry = (RubyHash) snapshot.op_aref(context, table);
+            if ( indexes != null ) {
+                final RubyArray tableIndexes = indexes.get(table.toString());
+                entry.op_aset(context, runtime.newSymbol("indexes"), tableIndexes == null ? runtime.newEmptyArray() : tableIndexes);
+            }
+            if ( fKeys != null ) {
+                final RubyArray tableKeys = fKeys.get(table.toString());
+                entry.op_aset(context, runtime.newSymbol("foreign_keys"), tableKeys == null ? runtime.newEmptyArray() : tableKeys);
+            }
+        }
+        return snapshot;
+    }
+
+    private RubyClass oidArrayClass; // PostgreSQL::OID::Array
+
     @Override
     protected String internedTypeFor(final ThreadContext context, final IRubyObject attribute) throws SQLException {
 
-        final RubyModule postgreSQL = (RubyModule) getConnectionAdapters(context.runtime).getConstant("PostgreSQL");
-        final RubyModule oid = (RubyModule) postgreSQL.getConstant("OID");
-        final RubyClass arrayClass = oid.getClass("Array");
+        RubyClass arrayClass = oidArrayClass;
+        if ( arrayClass == null ) {
+            final RubyModule postgreSQL = (RubyModule) getConnectionAdapters(context.runtime).getConstant("PostgreSQL");
+            final RubyModule oid = (RubyModule) postgreSQL.getConstant("OID");
+            oidArrayClass = arrayClass = oid.getClass("Array");
+        }
 
         if ( arrayClass.isInstance(attributeType(context, attribute)) ) {
             return "array";
@@ -436,35 +745,54 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         return super.jdbcTypeFor(type);
     }
 
-    /**
-     * Override jdbcToRuby type conversions to handle infinite timestamps.
-     * Handing timestamp off to ruby as string so adapter can perform type
-     * conversion to timestamp
-     */
-    @Override
-    protected IRubyObject jdbcToRuby(
-        final ThreadContext context, final Ruby runtime,
-        final int column, final int type, final ResultSet resultSet)
+    private IRubyObject bitToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column)
         throws SQLException {
-        switch ( type ) {
-            case Types.BIT:
-                // we do get BIT for 't' 'f' as well as BIT strings e.g. "0110" :
-                final String bits = resultSet.getString(column);
-                if ( bits == null ) return runtime.getNil();
-                if ( bits.length() > 1 ) {
-                    return RubyString.newUnicodeString(runtime, bits);
-                }
-                return booleanToRuby(context, runtime, resultSet, column);
-            //case Types.JAVA_OBJECT: case Types.OTHER:
-                //return objectToRuby(runtime, resultSet, resultSet.getObject(column));
+        // we do get BIT for 't' 'f' as well as BIT strings e.g. "0110" :
+        final String bits = resultSet.getString(column);
+        if ( bits == null ) return runtime.getNil();
+        if ( bits.length() > 1 ) {
+            return RubyString.newUnicodeString(runtime, bits);
+        }
+        return booleanToRuby(context, runtime, resultSet, column);
+    }
+
+    private static final ColumnConverter BIT_CONVERTER = new ColumnConverter() {
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final arjdbc.jdbc.RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException {
+            return ((PostgreSQLRubyJdbcConnection) connection).bitToRuby(context, runtime, resultSet, column);
+        }
+    };
+
+    @Override
+    protected ColumnConverter columnConverterFor(final int type) {
+        if ( type == Types.BIT ) return BIT_CONVERTER;
+        return super.columnConverterFor(type);
+    }
+
+    @Override // the driver always uses a UTF-8 client_encoding
+    protected boolean isStringBytesSupported(final ThreadContext context) {
+        return true;
+    }
+
+    @Override // NUMERIC might be 'NaN' which getBigDecimal fails to handle
+    protected IRubyObject decimalToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column) throws SQLException {
+        if ( ! nativeNumeric ) return super.decimalToRuby(context, runtime, resultSet, column);
+
+        final String value = resultSet.getString(column);
+        if ( value == null ) return runtime.getNil();
+        if ( "NaN".equals(value) ) {
+            return RubyBigDecimal.newInstance(context, getBigDecimalClass(runtime), runtime.newString(value));
         }
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
+        return new RubyBigDecimal(runtime, getBigDecimalClass(runtime), new BigDecimal(value));
     }
 
     @Override
     protected IRubyObject timestampToRuby(final ThreadContext context,
-        final Ruby runtime, final ResultSet resultSet, final int column)
-        throws SQLException {
+        final Ruby runtime, final ResultSet resultSet, final int column,
+        final ColumnData columnData) throws SQLException {
         // NOTE: using Timestamp we loose information such as BC :
         // Timestamp: '0001-12-31 22:59:59.0' String: '0001-12-31 22:59:59 BC'
         final String value = resultSet.getString(column);
@@ -476,9 +804,7 @@ public class PostgreSQLRubyJdbcConnection extends arjdbc.jdbc.RubyJdbcConnection
         final RubyString strValue = timestampToRubyString(runtime, value.toString());
         if ( rawDateTime != null && rawDateTime.booleanValue() ) return strValue;
 
-        final IRubyObject adapter = callMethod(context, "adapter"); // self.adapter
-
-        return typeCastFromDatabase(context, adapter, runtime.newSymbol("timestamp"), strValue);
+        return typeCastFromDatabase(context, columnData, "timestamp", strValue);
     }
 
     @Override
@@ -116,9 +116,9 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
     protected Statement createStatement(final ThreadContext context, final Connection connection)
         throws SQLException {
         final Statement statement = connection.createStatement();
-        IRubyObject statementEscapeProcessing = getConfigValue(context, "statement_escape_processing");
-        if ( ! statementEscapeProcessing.isNil() ) {
-            statement.setEscapeProcessing(statementEscapeProcessing.isTrue());
+        final Boolean escapeProcessing = getConnectionConfig(context).statementEscapeProcessing;
+        if ( escapeProcessing != null ) {
+            statement.setEscapeProcessing(escapeProcessing.booleanValue());
         }
         // else leave as is by default
         return statement;
@@ -231,25 +231,66 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
         return new TableName(catalog, schema, name);
     }
 
-    @Override
-    protected IRubyObject jdbcToRuby(final ThreadContext context,
-        final Ruby runtime, final int column, int type, final ResultSet resultSet)
-        throws SQLException {
-        // This is rather gross, and only needed because the resultset metadata for SQLite tries to be overly
-        // clever, and returns a type for the column of the "current" row, so an integer value stored in a
-        // decimal column is returned as Types.INTEGER.  Therefore, if the first row of a resultset was an
-        // integer value, all rows of that result set would get truncated.
-        if ( resultSet instanceof ResultSetMetaData ) {
-            type = ((ResultSetMetaData) resultSet).getColumnType(column);
+    @Override // column type might differ per row (see below) - keep resolving on every value
+    protected ColumnConverter columnConverterFor(final int type) {
+        return new RowTypeConverter(type);
+    }
+
+    private ColumnConverter valueConverterFor(final int type) {
+        return super.columnConverterFor(type);
+    }
+
+    private static final class RowTypeConverter extends ColumnConverter {
+
+        private final int type;
+
+        RowTypeConverter(final int type) { this.type = type; }
+
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column)
+            throws SQLException, IOException {
+            return convert(context, runtime, connection, resultSet, column, null);
         }
-        // since JDBC 3.8 there seems to be more cleverness built-in that
-        // seems (<= 3.8.7) to get things wrong ... reports DATE SQL type
-        // for "datetime" columns :
-        if ( type == Types.DATE ) {
-            // return timestampToRuby(context, runtime, resultSet, column);
-            return stringToRuby(context, runtime, resultSet, column);
+
+        @Override
+        public IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final ColumnData column)
+            throws SQLException, IOException {
+            return convert(context, runtime, connection, resultSet, column.index, column);
+        }
+
+        private IRubyObject convert(final ThreadContext context, final Ruby runtime,
+            final RubyJdbcConnection connection, final ResultSet resultSet, final int column,
+            final ColumnData columnData) throws SQLException, IOException {
+            // This is rather gross, and only needed because the resultset metadata for SQLite tries to be overly
+            // clever, and returns a type for the column of the "current" row, so an integer value stored in a
+            // decimal column is returned as Types.INTEGER.  Therefore, if the first row of a resultset was an
+            // integer value, all rows of that result set would get truncated.
+            int type = this.type;
+            if ( resultSet instanceof ResultSetMetaData ) {
+                type = ((ResultSetMetaData) resultSet).getColumnType(column);
+            }
+            final SQLite3RubyJdbcConnection self = (SQLite3RubyJdbcConnection) connection;
+            // since JDBC 3.8 there seems to be more cleverness built-in that
+            // seems (<= 3.8.7) to get things wrong ... reports DATE SQL type
+            // for "datetime" columns :
+            if ( type == Types.DATE ) {
+                return self.stringToRuby(context, runtime, resultSet, column);
+            }
+            final ColumnConverter converter = self.valueConverterFor(type);
+            if ( columnData == null ) return converter.convert(context, runtime, connection, resultSet, column);
+            // cast types are cached along with the type name they were resolved for
+            return converter.convert(context, runtime, connection, resultSet, columnData);
         }
-        return super.jdbcToRuby(context, runtime, column, type, resultSet);
+
+    }
+
+    @Override // getBlob not supported by the driver
+    protected IRubyObject blobToRuby(final ThreadContext context,
+        final Ruby runtime, final ResultSet resultSet, final int column)
+        throws SQLException, IOException {
+        return streamToRuby(context, runtime, resultSet, column);
     }
 
     @Override
@@ -303,7 +344,7 @@ public class SQLite3RubyJdbcConnection extends RubyJdbcConnection {
         }
         final Connection connection = getConnection(context, true);
         try {
-            connection.setAutoCommit(false);
+            setAutoCommit(connection, false);
             // NOTE: JDBC driver does not support setSavepoint(String) :
             connection.createStatement().execute("SAVEPOINT " + name.toString());
 
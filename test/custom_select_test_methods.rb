@@ -14,6 +14,21 @@ module CustomSelectTestMethods
     assert_instance_of BigDecimal, model.custom_decimal
   end
 
+  def test_custom_select_decimal_native
+    skip unless defined? JRUBY_VERSION
+
+    native_numeric = ActiveRecord::ConnectionAdapters::JdbcConnection.native_numeric?
+    ActiveRecord::ConnectionAdapters::JdbcConnection.native_numeric = true
+
+    model = DbType.create! :sample_small_decimal => ( decimal = BigDecimal.new('5.45') )
+    model = DbType.where("id = #{model.id}").select('sample_small_decimal AS custom_decimal').first
+    assert_equal decimal, model.custom_decimal
+    assert_instance_of BigDecimal, model.custom_decimal
+
+  ensure
+    ActiveRecord::ConnectionAdapters::JdbcConnection.native_numeric = native_numeric if defined? JRUBY_VERSION
+  end
+
   def test_custom_select_datetime
     skip unless defined? JRUBY_VERSION
 
@@ -47,4 +62,40 @@ module CustomSelectTestMethods
   ensure
     ActiveRecord::ConnectionAdapters::JdbcConnection.raw_date_time = raw_date_time if defined? JRUBY_VERSION
   end
+
+  def test_custom_select_datetime_native
+    skip unless defined? JRUBY_VERSION
+
+    native_date_time = ActiveRecord::ConnectionAdapters::JdbcConnection.native_date_time?
+    ActiveRecord::ConnectionAdapters::JdbcConnection.native_date_time = true
+
+    my_time = Time.local 2013, 03, 15, 19, 53, 51, 0 # usec
+    model = DbType.create! :sample_datetime => my_time
+    model = DbType.where("id = #{model.id}").select('sample_datetime AS custom_sample_datetime').first
+    assert_equal my_time, model.custom_sample_datetime
+    sample_datetime = model.custom_sample_datetime
+    assert sample_datetime.acts_like?(:time), "expected Time-like instance but got: #{sample_datetime.class}"
+
+  ensure
+    ActiveRecord::ConnectionAdapters::JdbcConnection.native_date_time = native_date_time if defined? JRUBY_VERSION
+  end
+
+  def test_custom_select_date_native
+    skip unless defined? JRUBY_VERSION
+
+    native_date_time = ActiveRecord::ConnectionAdapters::JdbcConnection.native_date_time?
+    ActiveRecord::ConnectionAdapters::JdbcConnection.native_date_time = true
+
+    my_date = Date.new 2013, 03, 15
+    model = DbType.create! :sample_date => my_date
+    model = DbType.where("id = #{model.id}").select('sample_date AS custom_sample_date').first
+    sample_date = model.custom_sample_date
+    assert_equal my_date, sample_date
+    assert_equal '2013-03-15', sample_date.to_s
+    assert_equal my_date.next_day, sample_date + 1
+    assert sample_date.acts_like?(:date), "expected Date-like instance but got: #{sample_date.class}"
+
+  ensure
+    ActiveRecord::ConnectionAdapters::JdbcConnection.native_date_time = native_date_time if defined? JRUBY_VERSION
+  end
 end
@@ -1,5 +1,6 @@
 require 'test_helper'
 require 'db/derby'
+require 'tmpdir'
 
 class DerbySchemaTest < Test::Unit::TestCase
 
@@ -22,4 +23,68 @@ class DerbySchemaTest < Test::Unit::TestCase
     connection.drop_table(:muu)
   end
 
+  def test_schema_snapshot
+    connection.create_table(:snap_parents) { |t| t.string :name }
+    connection.create_table(:snap_children) do |t|
+      t.integer :snap_parent_id
+      t.string :title, :limit => 100
+    end
+    connection.add_index :snap_children, :title
+
+    snapshot = connection.schema_snapshot(connection.current_schema)
+    assert_nil snapshot['snap_children'][:indexes] # not requested
+    snapshot = connection.schema_snapshot(connection.current_schema, :indexes => true)
+    assert_equal %w( id snap_parent_id title ), snapshot['snap_children'][:columns].map(&:name)
+    assert_equal [ 'id' ], snapshot['snap_children'][:primary_keys]
+    assert_equal [ 'index_snap_children_on_title' ], snapshot['snap_children'][:indexes].map(&:name)
+    assert_equal %w( id name ), snapshot['snap_parents'][:columns].map(&:name)
+
+    connection.schema_cache.clear!
+    assert_operator connection.load_schema_cache!(connection.current_schema), :>=, 2
+    assert_equal 'id', connection.schema_cache.primary_keys('snap_parents')
+    assert_equal %w( id name ), connection.schema_cache.columns_hash('snap_parents').keys
+  ensure
+    connection.drop_table(:snap_children) rescue nil
+    connection.drop_table(:snap_parents) rescue nil
+  end
+
+  def test_schema_snapshot_file
+    jdbc_connection = connection.raw_connection
+    connection.create_table(:snap_things) { |t| t.string :name }
+    path = File.join(Dir.tmpdir, "arjdbc_schema_snapshot_#{Process.pid}.bin")
+
+    # no fingerprint - can not tell whether stale
+    assert_raise(ActiveRecord::JDBCError) { connection.dump_schema_snapshot(path) }
+    assert_false File.exist?(path)
+
+    jdbc_connection.config[:schema_fingerprint_sql] = 'SELECT COUNT(*) FROM SYS.SYSTABLES'
+    jdbc_connection.refresh_config!
+
+    assert_nil connection.load_schema_snapshot(path)
+    fingerprint = connection.dump_schema_snapshot(path, connection.current_schema)
+    assert_equal fingerprint, jdbc_connection.schema_fingerprint
+
+    snapshot = connection.load_schema_snapshot(path, connection.current_schema)
+    assert_equal %w( id name ), snapshot['snap_things'][:columns].map(&:name)
+    assert_equal [ 'id' ], snapshot['snap_things'][:primary_keys]
+    assert_nil connection.load_schema_snapshot(path, 'OTHER') # another schema
+
+    connection.create_table(:snap_others) # fingerprint changes
+    assert_nil connection.load_schema_snapshot(path, connection.current_schema)
+
+    File.open(path, 'wb') { |f| f << 'garbage' }
+    assert_nil connection.load_schema_snapshot(path)
+
+    connection.schema_cache.clear!
+    assert_operator connection.load_schema_cache!(connection.current_schema, path), :>=, 2
+    assert_not_nil connection.load_schema_snapshot(path, connection.current_schema)
+    assert_equal %w( id name ), connection.schema_cache.columns_hash('snap_things').keys
+  ensure
+    jdbc_connection.config.delete(:schema_fingerprint_sql)
+    jdbc_connection.refresh_config!
+    File.delete(path) if path && File.exist?(path)
+    connection.drop_table(:snap_others) rescue nil
+    connection.drop_table(:snap_things) rescue nil
+  end
+
 end
\ No newline at end of file
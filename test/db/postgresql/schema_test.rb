@@ -35,6 +35,40 @@ class PostgresSchemaTest < Test::Unit::TestCase
     assert_equal "\"$user\", public", connection.schema_search_path
   end
 
+  def test_catalog_introspection
+    connection.execute "CREATE TABLE cat_parents (id serial PRIMARY KEY, name text)"
+    connection.execute "CREATE TABLE cat_children (id serial PRIMARY KEY, " <<
+      "cat_parent_id integer REFERENCES cat_parents (id) ON DELETE CASCADE, title varchar(100))"
+    connection.execute "CREATE INDEX cat_children_title ON cat_children (title DESC) WHERE title IS NOT NULL"
+    connection.execute "CREATE UNIQUE INDEX cat_children_lower ON cat_children (lower(title))"
+
+    indexes = connection.indexes('cat_children').sort_by(&:name)
+    assert_equal %w( cat_children_lower cat_children_title ), indexes.map(&:name)
+    assert_equal true, indexes[0].unique
+    assert_equal 'lower((title)::text)', indexes[0].columns
+    assert_equal [ 'title' ], indexes[1].columns
+    assert_equal({ 'title' => :desc }, indexes[1].orders)
+    assert_equal '(title IS NOT NULL)', indexes[1].where
+    assert_equal :btree, indexes[1].using
+    assert_equal indexes.map(&:name), connection.indexes('public.cat_children').map(&:name).sort
+
+    jdbc_connection = connection.raw_connection
+    assert_equal [ 'id' ], jdbc_connection.primary_keys('cat_children')
+    fks = jdbc_connection.foreign_keys('cat_children')
+    assert_equal 1, fks.size
+    assert_equal 'cat_parents', fks[0].to_table
+    assert_equal 'cat_parent_id', fks[0].options[:column]
+    assert_equal :cascade, fks[0].options[:on_delete]
+
+    snapshot = jdbc_connection.schema_snapshot('public')
+    assert_equal indexes.map(&:name), snapshot['cat_children'][:indexes].map(&:name).sort
+    assert_equal [ 'cat_parents' ], snapshot['cat_children'][:foreign_keys].map(&:to_table)
+    assert_equal [], snapshot['cat_parents'][:indexes]
+  ensure
+    connection.execute "DROP TABLE IF EXISTS cat_children"
+    connection.execute "DROP TABLE IF EXISTS cat_parents"
+  end
+
   context "search path" do
 
     class CreateSchema < ActiveRecord::Migration
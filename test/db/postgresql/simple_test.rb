@@ -286,6 +286,23 @@ class PostgresDeserializationTest < Test::Unit::TestCase
 
     assert_equal expected.sample_float, actual.sample_float
   end
+
+  def test_string_bytes
+    jdbc_connection = DbType.connection.raw_connection
+    jdbc_connection.config[:string_bytes] = true
+    jdbc_connection.refresh_config!
+
+    expected = DbType.create(:sample_string => 'žluťoučký kůň', :sample_float => 7.3)
+    row = DbType.connection.select_rows("SELECT sample_string, sample_float, CAST(sample_float AS TEXT) " <<
+      "FROM db_types WHERE id = #{expected.id}").first
+    assert_equal 'žluťoučký kůň', row[0]
+    assert_equal Encoding::UTF_8, row[0].encoding
+    assert_equal 7.3, row[1] # not read as bytes
+    assert_equal '7.3', row[2]
+  ensure
+    jdbc_connection.config.delete(:string_bytes)
+    jdbc_connection.refresh_config!
+  end
 end
 
 class PostgresHasManyThroughTest < Test::Unit::TestCase
@@ -8,6 +8,18 @@ class JdbcConnectionTest < Test::Unit::TestCase
      assert ActiveRecord::Base.connected?
   end
 
+  test 'identifier case conversions' do
+    id_case = Java::ArjdbcJdbc::IdentifierCase
+    assert_equal 'foo_bar1', id_case::UPPER.toRails('FOO_BAR1')
+    assert_equal 'foo_bar', id_case::UPPER.toRails('foo_bar')
+    assert_equal 'FOO_bar', id_case::LOWER.toRails('FOO_bar')
+    assert_equal 'FOO_BAR', id_case::UPPER.toJdbc('foo_Bar')
+    assert_equal 'foo_bar', id_case::LOWER.toJdbc('Foo_BAR')
+    assert_equal 'Foo', id_case::MIXED.toJdbc('Foo')
+    assert_equal "\u010Daj_x", id_case.toLowerCase("\u010CAJ_X")
+    assert_nil id_case::UPPER.toRails(nil)
+  end if defined? JRUBY_VERSION
+
   test 'configures driver/connection properties' do
     config = JDBC_CONFIG.dup
     config[:properties] = {
@@ -182,6 +194,83 @@ class JdbcConnectionTest < Test::Unit::TestCase
       end
     end
 
+    test 'pools (and shares) physical connections with pool_impl: arjdbc' do
+      load_derby_driver
+      with_connection_removed do
+        config = { :adapter => 'jdbc', :pool_impl => 'arjdbc', :pool_max_size => 2,
+          :url => 'jdbc:derby:memory:PoolDB;create=true', :driver => 'org.apache.derby.jdbc.EmbeddedDriver' }
+        ActiveRecord::Base.establish_connection config
+        connection = ActiveRecord::Base.connection.raw_connection
+        pool = connection.connection_factory
+        assert_instance_of Java::ArjdbcJdbc::PooledConnectionFactory, pool
+        assert_equal 1, pool.active_count
+
+        physical = ActiveRecord::Base.connection.jdbc_connection(true)
+        physical.read_only = true
+        connection.disconnect!
+        assert_equal 0, pool.active_count
+        assert_equal 1, pool.idle_count
+        connection.reconnect!
+        assert_same physical, ActiveRecord::Base.connection.jdbc_connection(true) # re-used
+        assert_false physical.read_only? # state restored when returned
+
+        other = ActiveRecord::ConnectionAdapters::JdbcConnection.new(config.dup, ActiveRecord::Base.connection)
+        assert_same pool, other.connection_factory
+        assert_equal 2, pool.size
+        other.disconnect!
+
+        config = config.merge(:schema_search_path => 'other')
+        other = ActiveRecord::ConnectionAdapters::JdbcConnection.new(config, ActiveRecord::Base.connection)
+        assert_not_same pool, other.connection_factory # different session settings
+        other.disconnect!
+      end
+    end
+
+    test 'routes read-only queries to replicas' do
+      load_derby_driver
+      driver = 'org.apache.derby.jdbc.EmbeddedDriver'
+      replica_url = 'jdbc:derby:memory:ReplicaDB;create=true'
+      replica = java.sql.DriverManager.getConnection(replica_url)
+      replica.createStatement.execute "CREATE TABLE routed (name VARCHAR(20))"
+      replica.createStatement.execute "INSERT INTO routed VALUES ('replica')"
+      with_connection_removed do
+        ActiveRecord::Base.establish_connection :adapter => 'jdbc', :driver => driver,
+          :url => 'jdbc:derby:memory:PrimaryDB;create=true', :replicas => [ replica_url ]
+        connection = ActiveRecord::Base.connection.raw_connection
+        connection.execute "CREATE TABLE routed (name VARCHAR(20))"
+        connection.execute "INSERT INTO routed VALUES ('primary')"
+        select = lambda { connection.execute_query_raw("SELECT name FROM routed").first.values.first }
+
+        assert_equal 'primary', select.call # not requested
+        assert_equal 'replica', connection.with_replica { select.call }
+
+        connection.config[:replica_routing] = 'auto'
+        connection.refresh_config!
+        begin
+          assert_equal 'replica', select.call
+          assert_equal 'primary', connection.with_primary { select.call }
+          locking = connection.execute_query_raw("SELECT name FROM routed FOR UPDATE")
+          assert_equal 'primary', locking.first.values.first
+        ensure
+          connection.config.delete(:replica_routing)
+          connection.refresh_config!
+        end
+
+        connection.begin
+        begin
+          assert_equal 'primary', connection.with_replica { select.call }
+        ensure
+          connection.rollback
+        end
+
+        connection.replica_router.lag_guard = 60 * 1000
+        connection.execute "UPDATE routed SET name = 'primary'"
+        assert_equal 'primary', connection.with_replica { select.call } # pinned
+      end
+    ensure
+      replica.close if replica
+    end
+
     def load_derby_driver
       require 'jdbc/derby'
       Jdbc::Derby.load_driver(:require)
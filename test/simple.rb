@@ -844,6 +844,134 @@ module SimpleTestMethods
     end
   end
 
+  def test_cached_result_columns_after_ddl
+    Entry.delete_all
+    Entry.create! :title => 'cached'
+    sql = 'SELECT * FROM entries'
+    columns = connection.exec_query(sql).columns
+    connection.exec_query("UPDATE entries SET title = 'cached!'")
+    assert_equal columns, connection.exec_query(sql).columns
+
+    connection.add_column :entries, :cached_column, :string
+    assert_equal columns + [ 'cached_column' ], connection.exec_query(sql).columns
+    connection.remove_column :entries, :cached_column
+    assert_equal columns, connection.exec_query(sql).columns
+  ensure
+    Entry.reset_column_information
+  end
+
+  def test_exec_query_each_batch
+    Entry.delete_all
+    5.times { |i| Entry.create! :title => "batch #{i}" }
+
+    results = []
+    count = connection.exec_query_each_batch('SELECT title FROM entries ORDER BY id', nil, [], batch_size: 2) do |result|
+      results << result
+    end
+    assert_equal 5, count
+    assert_equal [ 2, 2, 1 ], results.map { |result| result.rows.size }
+    assert_instance_of ActiveRecord::Result, results.first
+    assert_equal [ 'batch 0', 'batch 1' ], results.first.rows.map(&:first)
+  end if defined? JRUBY_VERSION
+
+  def test_exec_query_each_batch_error_in_block
+    Entry.delete_all
+    3.times { |i| Entry.create! :title => "batch #{i}" }
+
+    yielded = 0
+    assert_raise(RuntimeError) do
+      connection.exec_query_each_batch('SELECT title FROM entries', nil, [], batch_size: 1) do
+        yielded += 1
+        raise 'failed in block'
+      end
+    end
+    assert_equal 1, yielded # no retry after the first batch
+    assert_true connection.jdbc_connection.getAutoCommit
+    assert_equal 3, Entry.count
+  end if defined? JRUBY_VERSION
+
+  def test_exec_batch
+    Entry.delete_all
+    sql = "INSERT INTO entries (title, content) VALUES (?, ?)"
+    binds_list = (1..5).map do |i|
+      [ [ Entry.columns_hash['title'], "batch #{i}" ], [ Entry.columns_hash['content'], "content #{i}" ] ]
+    end
+    counts = connection.exec_batch(sql, 'SQL', binds_list, batch_size: 2)
+    assert_equal [ 1, 1, 1, 1, 1 ], counts.map { |count| count || 1 }
+    assert_equal 5, Entry.count
+    assert_equal 'content 5', Entry.find_by_title('batch 5').content
+  end if defined? JRUBY_VERSION
+
+  def test_execute_many
+    Entry.delete_all
+    sqls = (1..3).map { |i| "INSERT INTO entries (title) VALUES ('many #{i}')" }
+    counts = connection.execute_many(sqls)
+    assert_equal 3, counts.size
+    assert_equal 3, Entry.count
+
+    sqls = [ "INSERT INTO entries (title) VALUES ('many 4')", "INSERT INTO unknown_table (title) VALUES ('x')" ]
+    error = assert_raise(ActiveRecord::StatementInvalid) { connection.execute_many(sqls) }
+    assert_match(/statement \[1\] failed/, error.message)
+    sql_exception = error.cause.respond_to?(:sql_exception) && error.cause.sql_exception
+    if sql_exception.is_a?(Java::JavaSql::BatchUpdateException) # keeps update counts
+      assert_not_nil sql_exception.getUpdateCounts
+    end
+  end if defined? JRUBY_VERSION
+
+  def test_exec_query_async
+    Entry.delete_all
+    Entry.create! :title => 'async 1'; Entry.create! :title => 'async 2'
+
+    futures = 2.times.map do
+      connection.exec_query_async('SELECT title FROM entries ORDER BY id')
+    end
+    futures.each do |future|
+      result = future.value
+      assert_instance_of ActiveRecord::Result, result
+      assert_equal [ 'async 1', 'async 2' ], result.rows.map(&:first)
+    end
+    assert futures.first.complete?
+  end if defined? JRUBY_VERSION
+
+  def test_exec_query_async_cancel
+    future = connection.exec_query_async('SELECT title FROM entries')
+    assert_true future.cancel
+    assert_raise(ActiveRecord::StatementInvalid) { future.value }
+  end if defined? JRUBY_VERSION
+
+  def test_statement_cache
+    config = current_connection_config.merge(:statement_cache_size => 4)
+    jdbc_connection = connection.raw_connection.class.new(config, connection)
+    begin
+      2.times { jdbc_connection.execute_query('SELECT * FROM entries', []) }
+      stats = jdbc_connection.statement_cache_stats
+      assert_equal 1, stats[:misses]
+      assert_equal 1, stats[:hits]
+      assert_equal 1, stats[:size]
+
+      jdbc_connection.reconnect!
+      assert_equal 0, jdbc_connection.statement_cache_stats[:size]
+    ensure
+      jdbc_connection.disconnect!
+    end
+  end if defined? JRUBY_VERSION
+
+  def test_statement_cache_resets_max_rows
+    Entry.delete_all
+    3.times { |i| Entry.create! :title => "cached #{i}" }
+
+    config = current_connection_config.merge(:statement_cache_size => 4)
+    jdbc_connection = connection.raw_connection.class.new(config, connection)
+    begin
+      sql = 'SELECT * FROM entries'
+      assert_equal 1, jdbc_connection.execute_query(sql, 1, []).rows.size
+      assert_equal 3, jdbc_connection.execute_query(sql, []).rows.size
+      assert_equal 1, jdbc_connection.statement_cache_stats[:hits]
+    ensure
+      jdbc_connection.disconnect!
+    end
+  end if defined? JRUBY_VERSION
+
   def test_select
     Entry.delete_all
     user = User.create! :login => 'select'
@@ -924,6 +1052,138 @@ module SimpleTestMethods
     assert_equal 'UPDATEd', user.reload.login
   end
 
+  def test_refresh_config
+    jdbc_connection = connection.raw_connection
+    config = jdbc_connection.config
+    had_statement_cache_size = config.key?(:statement_cache_size)
+    statement_cache_size = config[:statement_cache_size]
+    config[:statement_cache_size] = 2
+    assert_not_equal 2, jdbc_connection.statement_cache_stats[:max_size] # snapshot
+    jdbc_connection.refresh_config!
+    assert_equal 2, jdbc_connection.statement_cache_stats[:max_size]
+  ensure
+    if defined? JRUBY_VERSION
+      if had_statement_cache_size
+        config[:statement_cache_size] = statement_cache_size
+      else
+        config.delete(:statement_cache_size)
+      end
+      jdbc_connection.refresh_config!
+    end
+  end if defined? JRUBY_VERSION
+
+  def test_tracks_auto_commit_state
+    jdbc_connection = connection.raw_connection
+    java_connection = connection.jdbc_connection
+    assert_true java_connection.getAutoCommit
+    jdbc_connection.begin
+    assert_false java_connection.getAutoCommit
+    jdbc_connection.begin # no-op
+    assert_false java_connection.getAutoCommit
+    assert_true jdbc_connection.rollback
+    assert_true java_connection.getAutoCommit
+    assert_nil jdbc_connection.rollback # not in a transaction
+
+    java_connection = connection.jdbc_connection # raw connection exposed
+    java_connection.setAutoCommit(false)
+    begin
+      assert_true jdbc_connection.commit # not stale (would be nil)
+      assert_true java_connection.getAutoCommit
+    ensure
+      java_connection.setAutoCommit(true)
+    end
+  end if defined? JRUBY_VERSION
+
+  def test_lazy_transactions
+    jdbc_connection = connection.raw_connection
+    jdbc_connection.config[:lazy_transactions] = true
+    jdbc_connection.refresh_config!
+    java_connection = connection.jdbc_connection
+
+    jdbc_connection.begin
+    assert_true java_connection.getAutoCommit # not yet started
+    assert_true jdbc_connection.commit
+
+    jdbc_connection.begin
+    connection.jdbc_connection # raw connection exposed - starts the transaction
+    assert_false java_connection.getAutoCommit
+    assert_true jdbc_connection.commit
+    assert_true java_connection.getAutoCommit
+
+    jdbc_connection.begin
+    Entry.count
+    assert_false java_connection.getAutoCommit
+    assert_true jdbc_connection.rollback
+    assert_true java_connection.getAutoCommit
+  ensure
+    if defined? JRUBY_VERSION
+      jdbc_connection.config.delete(:lazy_transactions)
+      jdbc_connection.refresh_config!
+    end
+  end if defined? JRUBY_VERSION
+
+  def test_lazy_lobs
+    jdbc_connection = connection.raw_connection
+    jdbc_connection.config[:lazy_lobs] = true
+    jdbc_connection.refresh_config!
+
+    binary = "\000ABC\001" * 100
+    model = DbType.create! :sample_binary => binary, :sample_text => 'a text'
+    select = "SELECT sample_binary, sample_text FROM db_types WHERE id = #{model.id}"
+
+    # not in a transaction - LOBs are read eagerly
+    row = jdbc_connection.execute_query_raw(select).first
+    assert_kind_of String, row['sample_binary']
+    assert_kind_of String, row['sample_text']
+
+    DbType.transaction do
+      # AR type-casted values are never lazy
+      assert_equal binary, DbType.find(model.id).sample_binary
+
+      row = jdbc_connection.execute_query_raw(select).first
+      value = row['sample_binary'] # an IO if the driver reports a BLOB
+      value = value.read if value.respond_to?(:read)
+      assert_equal binary, value.force_encoding('ASCII-8BIT')
+      value = row['sample_text']
+      value = value.read if value.respond_to?(:read)
+      assert_equal 'a text', value.force_encoding('UTF-8')
+
+      row = jdbc_connection.execute_query_raw(select).first
+      if ( value = row['sample_binary'] ).respond_to?(:read)
+        DbType.count # the next statement invalidates (closes) the LOB
+        assert_raise(IOError) { value.read }
+      end
+    end
+  ensure
+    if defined? JRUBY_VERSION
+      jdbc_connection.config.delete(:lazy_lobs)
+      jdbc_connection.refresh_config!
+    end
+  end if defined? JRUBY_VERSION
+
+  def test_metadata_cache
+    jdbc_connection = connection.raw_connection
+    jdbc_connection.config[:metadata_cache_ttl] = 60
+    jdbc_connection.refresh_config!
+    jdbc_connection.clear_metadata_cache!
+    assert_equal 0, jdbc_connection.metadata_cache_size
+
+    assert_false jdbc_connection.table_exists?('metadata_cached')
+    assert_not_equal 0, jdbc_connection.metadata_cache_size
+
+    connection.create_table(:metadata_cached) { |t| t.string :name } # DDL
+    assert_true jdbc_connection.table_exists?('metadata_cached')
+
+    jdbc_connection.execute_update('DROP TABLE metadata_cached', nil) # DDL (not using execute)
+    assert_false jdbc_connection.table_exists?('metadata_cached')
+  ensure
+    if defined? JRUBY_VERSION
+      connection.drop_table(:metadata_cached) rescue nil
+      jdbc_connection.config.delete(:metadata_cache_ttl)
+      jdbc_connection.refresh_config!
+    end
+  end if defined? JRUBY_VERSION
+
   def test_connection_alive_sql
     config = current_connection_config
     if alive_sql = config[:connection_alive_sql]